@@ -1,5 +1,14 @@
 package com.example.accounts;
 
+import com.example.accounts.config.CustomerDetailsProperties;
+import com.example.accounts.config.FeignClientPoolProperties;
+import com.example.accounts.config.HedgingProperties;
+import com.example.accounts.config.JdbcMonitoringProperties;
+import com.example.accounts.config.LoadBalancingProperties;
+import com.example.accounts.config.OnboardingProperties;
+import com.example.accounts.config.ReadReplicaProperties;
+import com.example.accounts.config.SecondLevelCacheProperties;
+import com.example.accounts.config.ShardingProperties;
 import com.example.accounts.dto.AccountsContactInfoDto;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
@@ -8,13 +17,18 @@ import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {AccountsContactInfoDto.class})
+@EnableConfigurationProperties(value = {AccountsContactInfoDto.class, CustomerDetailsProperties.class,
+		FeignClientPoolProperties.class, HedgingProperties.class, JdbcMonitoringProperties.class,
+		LoadBalancingProperties.class, OnboardingProperties.class, ReadReplicaProperties.class,
+		SecondLevelCacheProperties.class, ShardingProperties.class})
 @EnableFeignClients
+@EnableCaching
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Account microservice REST API Documentation",
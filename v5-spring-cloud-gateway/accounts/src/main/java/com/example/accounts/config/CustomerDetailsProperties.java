@@ -0,0 +1,36 @@
+package com.example.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tuning for the customer-details aggregation: the size of the bounded pool the
+ * downstream calls run on, the deadline applied to each dependency and how many
+ * last known cards and loans are kept to fall back on.
+ */
+@ConfigurationProperties(prefix = "accounts.customer-details")
+@Getter
+@Setter
+public class CustomerDetailsProperties {
+
+    private int poolSize = 32;
+
+    private int queueCapacity = 200;
+
+    private Duration defaultTimeout = Duration.ofSeconds(3);
+
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    private long lastKnownMaximumSize = 100_000;
+
+    private Duration lastKnownTtl = Duration.ofHours(24);
+
+    public Duration timeoutFor(String dependency) {
+        return timeouts.getOrDefault(dependency, defaultTimeout);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.accounts.config;
+
+import com.example.accounts.dto.CustomerDetailsSection;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Lets callers write {@code include=account,loans} in lower case.
+ */
+@Component
+public class CustomerDetailsSectionConverter implements Converter<String, CustomerDetailsSection> {
+
+    @Override
+    public CustomerDetailsSection convert(String source) {
+        return CustomerDetailsSection.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
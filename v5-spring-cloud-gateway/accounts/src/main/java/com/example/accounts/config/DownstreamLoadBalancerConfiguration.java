@@ -0,0 +1,44 @@
+package com.example.accounts.config;
+
+import com.example.accounts.service.client.HedgeAwareServiceInstanceListSupplier;
+import com.example.accounts.service.client.HedgeRouting;
+import com.example.accounts.service.client.InstanceLatencyStats;
+import com.example.accounts.service.client.LatencyAwareLoadBalancer;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Registered in each per-service load balancer context by {@link LoadBalancerConfig}. It is
+ * deliberately neither a {@code @Configuration} nor nested in one, so it stays out of the
+ * application context.
+ */
+public class DownstreamLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier hedgeAwareServiceInstanceListSupplier(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withBlockingDiscoveryClient()
+                .withCaching()
+                .with((ctx, delegate) -> new HedgeAwareServiceInstanceListSupplier(delegate,
+                        ctx.getBean(HedgeRouting.class)))
+                .build(context);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory, LoadBalancingProperties properties,
+            InstanceLatencyStats stats) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        var suppliers = loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        return switch (properties.strategyFor(serviceId)) {
+            case LATENCY -> new LatencyAwareLoadBalancer(suppliers, serviceId, stats);
+            case ROUND_ROBIN -> new RoundRobinLoadBalancer(suppliers, serviceId);
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.accounts.config;
+
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Circuit breakers and bulkheads around the Feign clients, configured under
+ * {@code resilience4j.circuitbreaker} and {@code resilience4j.bulkhead}.
+ */
+@Configuration
+public class FeignCircuitBreakerConfig {
+
+    /**
+     * One circuit breaker and one bulkhead per downstream service rather than per method, so
+     * the single and bulk calls to a failing service trip the same breaker.
+     */
+    @Bean
+    public CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.accounts.config;
+
+import com.example.accounts.service.client.InstrumentedConnectionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces the connection manager Spring Cloud OpenFeign would create for the Apache HC5
+ * client with an instrumented one built from the same {@code spring.cloud.openfeign.httpclient}
+ * properties, and adds idle eviction to the client.
+ */
+@Configuration
+public class FeignClientPoolConfig {
+
+    @Bean
+    public InstrumentedConnectionManager feignConnectionManager(FeignHttpClientProperties httpClientProperties,
+                                                                MeterRegistry meterRegistry) {
+        FeignHttpClientProperties.Hc5Properties hc5 = httpClientProperties.getHc5();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(httpClientProperties.getMaxConnections())
+                .setMaxConnPerRoute(httpClientProperties.getMaxConnectionsPerRoute())
+                .setConnPoolPolicy(PoolReusePolicy.valueOf(hc5.getPoolReusePolicy().name()))
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.valueOf(hc5.getPoolConcurrencyPolicy().name()))
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.of(httpClientProperties.getTimeToLive(),
+                                httpClientProperties.getTimeToLiveUnit()))
+                        .setConnectTimeout(Timeout.of(httpClientProperties.getConnectionTimeout(), TimeUnit.MILLISECONDS))
+                        .setSocketTimeout(Timeout.of(hc5.getSocketTimeout(), hc5.getSocketTimeoutUnit()))
+                        .build())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(Timeout.of(hc5.getSocketTimeout(), hc5.getSocketTimeoutUnit()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "feign").bindTo(meterRegistry);
+        return new InstrumentedConnectionManager(connectionManager, meterRegistry);
+    }
+
+    @Bean
+    public HttpClient5FeignConfiguration.HttpClientBuilderCustomizer feignIdleEviction(
+            FeignClientPoolProperties poolProperties) {
+        return builder -> builder.evictIdleConnections(TimeValue.of(poolProperties.getIdleTimeout()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the pooled HTTP client behind the Feign clients that are not covered by
+ * {@code spring.cloud.openfeign.httpclient}: idle eviction and connection warm-up.
+ */
+@ConfigurationProperties(prefix = "accounts.feign-pool")
+@Getter
+@Setter
+public class FeignClientPoolProperties {
+
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    private boolean warmUpEnabled = true;
+
+    private List<String> warmUpServices = new ArrayList<>(List.of("cards", "loans"));
+
+    private String warmUpPath = "/actuator/health";
+
+    private Duration warmUpTimeout = Duration.ofSeconds(1);
+}
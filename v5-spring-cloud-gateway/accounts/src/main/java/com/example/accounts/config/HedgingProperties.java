@@ -0,0 +1,34 @@
+package com.example.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Hedging of the idempotent single-customer reads to cards and loans: when a call is still
+ * running after the tracked latency percentile, a second one goes to another instance and the
+ * first response wins. The budget caps hedges at a fraction of the calls made.
+ */
+@ConfigurationProperties(prefix = "accounts.hedging")
+@Getter
+@Setter
+public class HedgingProperties {
+
+    private boolean enabled = true;
+
+    private double percentile = 0.95;
+
+    private int windowSize = 1000;
+
+    private int minSamples = 100;
+
+    private Duration minDelay = Duration.ofMillis(20);
+
+    private double budgetRatio = 0.05;
+
+    private int budgetBurst = 10;
+
+    private int poolSize = 64;
+}
@@ -0,0 +1,21 @@
+package com.example.accounts.config;
+
+import com.example.accounts.service.client.InstanceLatencyStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Load balancer setup shared by every downstream service. The strategy is picked per service
+ * through {@code accounts.load-balancing.strategies}.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = DownstreamLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceLatencyStats instanceLatencyStats(LoadBalancingProperties properties, MeterRegistry meterRegistry) {
+        return new InstanceLatencyStats(properties.getDecay(), properties.getFailurePenalty(), meterRegistry);
+    }
+}
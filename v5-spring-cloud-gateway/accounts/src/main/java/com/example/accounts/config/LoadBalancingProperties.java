@@ -0,0 +1,37 @@
+package com.example.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Choice of load-balancing strategy per downstream service, and the tuning of the
+ * latency-aware one.
+ */
+@ConfigurationProperties(prefix = "accounts.load-balancing")
+@Getter
+@Setter
+public class LoadBalancingProperties {
+
+    private Strategy defaultStrategy = Strategy.ROUND_ROBIN;
+
+    private Map<String, Strategy> strategies = new HashMap<>();
+
+    private Duration decay = Duration.ofSeconds(10);
+
+    private Duration failurePenalty = Duration.ofSeconds(1);
+
+    public Strategy strategyFor(String serviceId) {
+        return strategies.getOrDefault(serviceId.toLowerCase(Locale.ROOT), defaultStrategy);
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LATENCY
+    }
+}
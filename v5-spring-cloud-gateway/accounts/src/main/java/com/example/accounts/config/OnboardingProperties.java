@@ -0,0 +1,21 @@
+package com.example.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning for bulk onboarding: how many records are validated, checked for duplicates and
+ * inserted together in one transaction, and how many of those chunks are inserted at the same
+ * time, each on a connection of its own.
+ */
+@ConfigurationProperties(prefix = "accounts.onboarding")
+@Getter
+@Setter
+public class OnboardingProperties {
+
+    private int chunkSize = 1000;
+
+    // the request thread reads and H2 runs in process, so chunks get about half the cores
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+}
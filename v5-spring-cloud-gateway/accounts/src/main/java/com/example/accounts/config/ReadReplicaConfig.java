@@ -0,0 +1,78 @@
+package com.example.accounts.config;
+
+import com.example.accounts.jdbc.JdbcMetricsListener;
+import com.example.accounts.jdbc.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Active with {@code accounts.read-replicas.enabled=true}.
+ * <p>
+ * The data source becomes a {@link ReplicaRoutingDataSource} over the application's pool and one
+ * pool per configured replica, each behind its own monitoring proxy, so {@code jdbc.*} meters
+ * show how reads are spread by their {@code datasource} tag.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "accounts.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    static BeanPostProcessor readReplicaRouting(ObjectProvider<ReadReplicaProperties> properties,
+                                                ObjectProvider<JdbcMetricsListener> listener,
+                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource primary && !(bean instanceof ReplicaRoutingDataSource)) {
+                    ReadReplicaProperties replicaProperties = properties.getObject();
+                    Map<String, DataSource> replicas = new LinkedHashMap<>();
+                    replicaProperties.getReplicas().forEach((name, replica) -> replicas.put(name,
+                            JdbcMonitoringConfig.monitored(name, replicaPool(name, replica, meterRegistry.getObject()),
+                                    listener.getObject())));
+                    return new ReplicaRoutingDataSource(primary, replicas, replicaProperties.getMaxLag(),
+                            replicaProperties.getCheckInterval(), replicaProperties.getLagQuery(),
+                            meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer replicaConnectionHandling() {
+        // Hibernate otherwise keeps the connection of the first transaction for the rest of the
+        // request, and the next transaction would run on it whether it is read-only or not
+        return hibernateProperties -> hibernateProperties.put(JdbcSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource replicaPool(String name, ReadReplicaProperties.Replica replica,
+                                                MeterRegistry meterRegistry) {
+        // the pool starts on its first connection, so a replica that is down does not stop startup
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(replica.getUrl());
+        pool.setUsername(replica.getUsername());
+        pool.setPassword(replica.getPassword());
+        if (StringUtils.hasText(replica.getDriverClassName())) {
+            pool.setDriverClassName(replica.getDriverClassName());
+        }
+        pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+        pool.setReadOnly(true);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
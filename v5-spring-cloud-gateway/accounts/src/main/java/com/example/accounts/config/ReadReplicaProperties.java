@@ -0,0 +1,47 @@
+package com.example.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replicas that read-only transactions are sent to, keyed by a name used for the pool and its
+ * metrics. Each replica's lag is checked every {@code check-interval}; one that is further behind
+ * than {@code max-lag}, or cannot be checked, gets no reads until it has caught up.
+ */
+@ConfigurationProperties(prefix = "accounts.read-replicas")
+@Getter
+@Setter
+public class ReadReplicaProperties {
+
+    private boolean enabled;
+
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration checkInterval = Duration.ofSeconds(5);
+
+    // read from a Seconds_Behind_Source or Seconds_Behind_Master column if there is one, else the first
+    private String lagQuery = "SHOW REPLICA STATUS";
+
+    private Map<String, Replica> replicas = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        // unset lets the pool find the driver from the url
+        private String driverClassName;
+
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.accounts.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache on Caffeine through JCache.
+ * <p>
+ * The regions are created here from {@link SecondLevelCacheProperties} before Hibernate starts,
+ * and Hibernate is told to fail on any region that is not configured, so no region ends up
+ * unbounded. Each region is published as {@code cache.*} meters tagged
+ * {@code cache.manager=hibernate}, with size, hits, misses and evictions to size it by.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SecondLevelCacheConfig {
+
+    private static final String CACHE_MANAGER_TAG = "hibernate";
+
+    @Bean
+    CacheManager hibernateCacheManager(SecondLevelCacheProperties properties, MeterRegistry meterRegistry) {
+        // a provider of our own, so no other JCache user can share or close this manager
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        properties.getRegions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            // Hibernate caches disassembled state, which is never modified, so no copy is needed
+            configuration.setStoreByValue(false);
+            configuration.setNativeStatisticsEnabled(true);
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            if (region.getTimeToLive() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.getTimeToLive().toNanos()));
+            }
+            javax.cache.Cache<Object, Object> cache = cacheManager.createCache(name, configuration);
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.unwrap(Cache.class), name,
+                    "cache.manager", CACHE_MANAGER_TAG);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return (Map<String, Object> hibernateProperties) -> {
+            hibernateProperties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(CacheSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(CacheSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
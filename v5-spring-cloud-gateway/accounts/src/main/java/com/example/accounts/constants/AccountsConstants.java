@@ -7,10 +7,26 @@ public class AccountsConstants {
 
     public static final String SAVINGS = "Savings";
     public static final String ADDRESS = "123 Main St, New York";
+    public static final int MAX_BULK_FETCH_SIZE = 5_000;
+    public static final int NUMBER_BLOCK_SIZE = 100;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final String EXPORT_FETCH_SIZE = "500";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final String PREFER_SMILE_ACCEPT_HEADER =
+            "Accept=" + APPLICATION_SMILE_VALUE + ", application/json;q=0.5";
+    public static final String CUSTOMER_ACCOUNTS_CACHE = "customerAccounts";
+    public static final String CUSTOMER_CACHE_REGION = "customer";
+    public static final String ACCOUNTS_CACHE_REGION = "accounts";
+    public static final String STALE_RESPONSE_HEADER = "mybank-stale";
     public static final String STATUS_201 = "201";
     public static final String MESSAGE_201 = "Account created successfully";
     public static final String STATUS_200 = "200";
     public static final String MESSAGE_200 = "Request processed successfully";
+    public static final String MESSAGE_409 =
+            "Customer or account was changed by another request. Fetch it again and retry the update";
     public static final String STATUS_500 = "500";
     public static final String MESSAGE_500 = "An error occurred while processing the request";
 }
@@ -2,30 +2,42 @@ package com.example.accounts.controller;
 
 import com.example.accounts.constants.AccountsConstants;
 import com.example.accounts.dto.AccountsContactInfoDto;
+import com.example.accounts.dto.AccountsDto;
 import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.CustomerPageDto;
 import com.example.accounts.dto.ErrorResponseDto;
+import com.example.accounts.dto.OnboardingReportDto;
+import com.example.accounts.dto.OnUpdate;
 import com.example.accounts.dto.ResponseDto;
 import com.example.accounts.service.AccountsService;
+import com.example.accounts.service.OnboardingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.validation.annotation.Validated;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+
 
 @RestController
 @RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
@@ -35,6 +47,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class AccountsController {
 
     private final AccountsService accountsService;
+    private final OnboardingService onboardingService;
     private final Environment environment;
     private final AccountsContactInfoDto accountsContactInfoDto;
 
@@ -65,10 +78,38 @@ public class AccountsController {
     }
 
 
+    @Operation(summary = "Onboard customers in bulk",
+            description = "Create a customer and account for every valid record of a JSON array or a CSV file "
+                    + "with name, email and mobileNumber columns. Records are read as a stream and inserted "
+                    + "in batches; the report gives the outcome of each record.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Request processed, see the report for each record."),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error occurred.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/onboard", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OnboardingReportDto> onboardCustomers(InputStream body) {
+        OnboardingReportDto onboardingReportDto = onboardingService.onboardCustomersFromJson(body);
+        return ResponseEntity.status(HttpStatus.OK).body(onboardingReportDto);
+    }
+
+    @PostMapping(value = "/onboard", consumes = AccountsConstants.TEXT_CSV_VALUE)
+    public ResponseEntity<OnboardingReportDto> onboardCustomersFromCsv(InputStream body) {
+        OnboardingReportDto onboardingReportDto = onboardingService.onboardCustomersFromCsv(body);
+        return ResponseEntity.status(HttpStatus.OK).body(onboardingReportDto);
+    }
+
+
     @Operation(summary = "Fetch customer account by mobile number",
             description = "Retrieve customer account details using a 10-digit mobile number.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Customer account retrieved successfully."),
+            @ApiResponse(responseCode = "304", description = "Customer account unchanged since the version in If-None-Match."),
             @ApiResponse(responseCode = "400", description = "Invalid input provided."),
             @ApiResponse(
                     responseCode = "500",
@@ -82,7 +123,11 @@ public class AccountsController {
     public ResponseEntity<CustomerDto> fetchAccount(@RequestParam @Pattern(regexp = "\\d{10}",
             message = "Mobile number must be exactly 10 digits") String mobileNumber) {
         CustomerDto customerDto = accountsService.fetchAccount(mobileNumber);
-        return ResponseEntity.status(HttpStatus.OK).body(customerDto);
+        // the lookup is served from the customerAccounts cache; a new customer gets a new account
+        // number, so it and the two row versions identify this exact state
+        AccountsDto accountsDto = customerDto.getAccountsDto();
+        return ETags.ok(accountsDto.getAccountNumber(), customerDto.getVersion(), accountsDto.getVersion())
+                .body(customerDto);
     }
 
 
@@ -91,6 +136,13 @@ public class AccountsController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Account updated successfully."),
             @ApiResponse(responseCode = "400", description = "Invalid input provided."),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Customer or account changed since it was fetched.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Unexpected error occurred.",
@@ -100,7 +152,7 @@ public class AccountsController {
             )
     })
     @PutMapping("/update")
-    public ResponseEntity<ResponseDto> updateAccount(@Valid @RequestBody CustomerDto customerDto) {
+    public ResponseEntity<ResponseDto> updateAccount(@Validated(OnUpdate.class) @RequestBody CustomerDto customerDto) {
         boolean updated = accountsService.updateAccount(customerDto);
         if (updated) {
             return ResponseEntity
@@ -142,6 +194,52 @@ public class AccountsController {
         }
     }
 
+    @Operation(summary = "List customer accounts",
+            description = "List customers page by page. Pass the nextCursor of a page to get the one after it.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Customers listed successfully."),
+            @ApiResponse(responseCode = "400", description = "Invalid input provided."),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error occurred.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping("/customers")
+    public ResponseEntity<CustomerPageDto> fetchCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AccountsConstants.DEFAULT_PAGE_SIZE)
+            @Min(value = 1, message = "Page size must be at least 1")
+            @Max(value = AccountsConstants.MAX_PAGE_SIZE,
+                    message = "Page size must be at most " + AccountsConstants.MAX_PAGE_SIZE) int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo) {
+        CustomerPageDto customerPageDto = accountsService.fetchCustomers(cursor, size, createdFrom, createdTo);
+        return ResponseEntity.status(HttpStatus.OK).body(customerPageDto);
+    }
+
+    @Operation(summary = "Export all customer accounts",
+            description = "Stream every customer with their account as newline-delimited JSON.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully."),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error occurred.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/exportAccounts", produces = AccountsConstants.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAccounts() {
+        StreamingResponseBody body = accountsService::exportAccounts;
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(AccountsConstants.APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
     @GetMapping("/build-info")
     public ResponseEntity<String> getBuildVersion() {
         return ResponseEntity.status(HttpStatus.OK).body(buildVersion);
@@ -1,6 +1,8 @@
 package com.example.accounts.controller;
 
+import com.example.accounts.constants.AccountsConstants;
 import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDetailsSection;
 import com.example.accounts.dto.ErrorResponseDto;
 import com.example.accounts.service.CustomersService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,6 +12,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +22,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
 @RequiredArgsConstructor
@@ -30,7 +36,8 @@ public class CustomerController {
     public static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
 
     @Operation(summary = "Fetch customer details",
-            description = "Fetch customer details for an existing customer.")
+            description = "Fetch customer details for an existing customer. "
+                    + "Pass include=account,cards,loans or a subset to fetch only those sections.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Details fetched successfully."),
             @ApiResponse(responseCode = "400", description = "Invalid input provided."),
@@ -46,9 +53,38 @@ public class CustomerController {
     public ResponseEntity<CustomerDetailsDto> fetchCustomerDetails(
             @RequestHeader("mybank-correlation-id") String correlationId,
             @RequestParam @Pattern(regexp = "\\d{10}",
-            message = "Mobile number must be exactly 10 digits") String mobileNumber) {
+            message = "Mobile number must be exactly 10 digits") String mobileNumber,
+            @RequestParam(required = false) Set<CustomerDetailsSection> include) {
         logger.debug("MyBank correlation id found: {}", correlationId);
-        CustomerDetailsDto customerDetailsDto = customersService.fetchCustomerDetails(mobileNumber, correlationId);
+        CustomerDetailsDto customerDetailsDto = customersService.fetchCustomerDetails(mobileNumber, correlationId,
+                CustomerDetailsSection.resolve(include));
         return ResponseEntity.status(HttpStatus.OK).body(customerDetailsDto);
     }
+
+    @Operation(summary = "Fetch customer details in bulk",
+            description = "Fetch customer details for a batch of customers in a constant number of round trips. "
+                    + "Pass include=account,cards,loans or a subset to fetch only those sections.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Details fetched successfully."),
+            @ApiResponse(responseCode = "400", description = "Invalid input provided."),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error occurred.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/fetchCustomerDetailsBulk")
+    public ResponseEntity<List<CustomerDetailsDto>> fetchCustomerDetailsBulk(
+            @RequestHeader("mybank-correlation-id") String correlationId,
+            @RequestBody @Size(max = AccountsConstants.MAX_BULK_FETCH_SIZE,
+                    message = "At most " + AccountsConstants.MAX_BULK_FETCH_SIZE + " mobile numbers per request")
+            List<@Pattern(regexp = "\\d{10}", message = "Mobile number must be exactly 10 digits") String> mobileNumbers,
+            @RequestParam(required = false) Set<CustomerDetailsSection> include) {
+        logger.debug("MyBank correlation id found: {}", correlationId);
+        List<CustomerDetailsDto> customerDetailsDtos = customersService.fetchCustomerDetails(mobileNumbers, correlationId,
+                CustomerDetailsSection.resolve(include));
+        return ResponseEntity.status(HttpStatus.OK).body(customerDetailsDtos);
+    }
 }
@@ -0,0 +1,60 @@
+package com.example.accounts.controller;
+
+import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDetailsSection;
+import com.example.accounts.dto.ErrorResponseDto;
+import com.example.accounts.service.ReactiveCustomersService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping(path = "/api/reactive", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Reactive Customer API", description = "Non-blocking variant of the customer detail API")
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomersService reactiveCustomersService;
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCustomerController.class);
+
+    @Operation(summary = "Fetch customer details without blocking",
+            description = "Fetch customer details for an existing customer; cards and loans are left out if they fail or time out.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Details fetched successfully."),
+            @ApiResponse(responseCode = "400", description = "Invalid input provided."),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Unexpected error occurred.",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping("/fetchCustomerDetails")
+    public Mono<ResponseEntity<CustomerDetailsDto>> fetchCustomerDetails(
+            @RequestHeader("mybank-correlation-id") String correlationId,
+            @RequestParam @Pattern(regexp = "\\d{10}",
+            message = "Mobile number must be exactly 10 digits") String mobileNumber,
+            @RequestParam(required = false) Set<CustomerDetailsSection> include) {
+        logger.debug("MyBank correlation id found: {}", correlationId);
+        return reactiveCustomersService.fetchCustomerDetails(mobileNumber, correlationId,
+                        CustomerDetailsSection.resolve(include))
+                .map(customerDetailsDto -> ResponseEntity.status(HttpStatus.OK).body(customerDetailsDto));
+    }
+}
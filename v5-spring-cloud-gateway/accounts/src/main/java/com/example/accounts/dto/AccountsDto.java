@@ -2,6 +2,7 @@ package com.example.accounts.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import jakarta.validation.constraints.Pattern;
 
@@ -26,4 +27,9 @@ public class AccountsDto {
     @NotEmpty(message = "Branch address cannot be null or empty.")
     @Schema(description = "The address of the branch associated with the account", example = "123 Main Street, Springfield")
     private String branchAddress;
+
+    @NotNull(groups = OnUpdate.class, message = "Account version is mandatory, send the version returned by fetch")
+    @Schema(description = "Version of the account when it was fetched; an update is rejected if it has changed since",
+            example = "0")
+    private Long version;
 }
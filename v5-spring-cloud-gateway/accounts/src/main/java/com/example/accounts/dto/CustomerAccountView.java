@@ -0,0 +1,31 @@
+package com.example.accounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Read-only projection of a customer joined with their account, loaded in a single
+ * statement without creating managed entities.
+ */
+@Getter
+@AllArgsConstructor
+public class CustomerAccountView {
+
+    private Long customerId;
+
+    private String name;
+
+    private String email;
+
+    private String mobileNumber;
+
+    private Long accountNumber;
+
+    private String accountType;
+
+    private String branchAddress;
+
+    private Long customerVersion;
+
+    private Long accountVersion;
+}
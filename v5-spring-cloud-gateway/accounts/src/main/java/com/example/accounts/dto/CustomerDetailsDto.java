@@ -1,5 +1,6 @@
 package com.example.accounts.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
@@ -7,6 +8,8 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
+import java.util.Set;
+
 @Data
 @Schema(
         name = "CustomerDetails",
@@ -32,15 +35,25 @@ public class CustomerDetailsDto {
     @Schema(
             description = "account detail of customer"
     )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private AccountsDto accountsDto;
 
     @Schema(
             description = "account detail of customer's card"
     )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private CardsDto cardsDto;
 
     @Schema(
             description = "account detail of customer's loan"
     )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private LoansDto loansDto;
+
+    @Schema(
+            description = "Sections served from the last known copy, or left out when there is none, "
+                    + "because the service owning them was unavailable"
+    )
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Set<CustomerDetailsSection> staleSections;
 }
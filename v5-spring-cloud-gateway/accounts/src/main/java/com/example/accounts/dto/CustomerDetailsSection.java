@@ -0,0 +1,24 @@
+package com.example.accounts.dto;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Optional sections of {@link CustomerDetailsDto}. The customer's name, email and mobile
+ * number are always returned; each section is only fetched when requested.
+ */
+public enum CustomerDetailsSection {
+
+    ACCOUNT,
+    CARDS,
+    LOANS;
+
+    /**
+     * @param include - Sections requested by the caller, may be null or empty
+     * @return the requested sections, or all of them if none were named
+     */
+    public static Set<CustomerDetailsSection> resolve(Collection<CustomerDetailsSection> include) {
+        return include == null || include.isEmpty() ? EnumSet.allOf(CustomerDetailsSection.class) : EnumSet.copyOf(include);
+    }
+}
@@ -2,7 +2,9 @@ package com.example.accounts.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
@@ -29,5 +31,11 @@ public class CustomerDto {
     @Pattern(regexp = "\\d{10}", message = "Mobile number must be exactly 10 digits")
     private String mobileNumber;
 
+    @Schema(description = "Version of the customer when it was fetched; an update is rejected if it has changed since",
+            example = "0")
+    @NotNull(groups = OnUpdate.class, message = "Version is mandatory, send the version returned by fetch")
+    private Long version;
+
+    @Valid
     private AccountsDto accountsDto;
 }
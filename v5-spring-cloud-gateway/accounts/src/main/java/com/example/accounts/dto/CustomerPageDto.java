@@ -0,0 +1,22 @@
+package com.example.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@Schema(
+        name = "CustomerPage",
+        description = "Schema to hold one page of customers and the cursor of the next page"
+)
+public class CustomerPageDto {
+
+    @Schema(description = "Customers on this page in ascending customer id order, at most the page size")
+    private List<CustomerDto> customers;
+
+    @Schema(description = "Opaque cursor to pass as the cursor parameter for the next page, absent on the last page")
+    private String nextCursor;
+}
@@ -0,0 +1,10 @@
+package com.example.accounts.dto;
+
+import jakarta.validation.groups.Default;
+
+/**
+ * Validation group for constraints that only apply when an existing record is updated, such as
+ * the version read by the caller. Extends {@link Default} so the other constraints still apply.
+ */
+public interface OnUpdate extends Default {
+}
@@ -0,0 +1,32 @@
+package com.example.accounts.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(
+        name = "OnboardingReport",
+        description = "Schema to hold the per-record outcome of a bulk onboarding request"
+)
+public class OnboardingReportDto {
+
+    @Schema(description = "Number of records read from the request", example = "1000")
+    private int received;
+
+    @Schema(description = "Number of customers created", example = "990")
+    private int created;
+
+    @Schema(description = "Number of records rejected as invalid or duplicate", example = "10")
+    private int rejected;
+
+    @Schema(description = "Why reading the request stopped early; records before that point were still processed")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    @Schema(description = "One result per record received, in request order")
+    private List<OnboardingResultDto> results = new ArrayList<>();
+}
@@ -0,0 +1,35 @@
+package com.example.accounts.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@Schema(
+        name = "OnboardingResult",
+        description = "Schema to hold the outcome of one onboarded customer record"
+)
+public class OnboardingResultDto {
+
+    @Schema(description = "Zero-based position of the record in the request", example = "0")
+    private int index;
+
+    @Schema(description = "Mobile number of the record as received", example = "9876543210")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String mobileNumber;
+
+    @Schema(description = "Whether the customer was created, failed validation or already existed")
+    private OnboardingStatus status;
+
+    @Schema(description = "Account number of the created account", example = "1234567890")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String accountNumber;
+
+    @Schema(description = "Validation messages by field, for invalid records")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, String> errors;
+}
@@ -0,0 +1,11 @@
+package com.example.accounts.dto;
+
+/**
+ * Outcome of one record of a bulk onboarding request.
+ */
+public enum OnboardingStatus {
+
+    CREATED,
+    INVALID,
+    DUPLICATE
+}
@@ -1,7 +1,11 @@
 package com.example.accounts.entity;
 
+import com.example.accounts.constants.AccountsConstants;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
 
 @Entity
 @Getter
@@ -9,7 +13,8 @@ import lombok.*;
 @ToString
 @AllArgsConstructor
 @NoArgsConstructor
-public class Accounts extends BaseEntity {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AccountsConstants.ACCOUNTS_CACHE_REGION)
+public class Accounts extends BaseEntity implements Persistable<Long> {
 
     @Column(name = "customer_id")
     private Long customerId;
@@ -23,4 +28,27 @@ public class Accounts extends BaseEntity {
 
     @Column(name = "branch_address")
     private String branchAddress;
+
+    // the account number is assigned before save, so tell Spring Data it is new instead of letting it merge
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private boolean persisted;
+
+    @Override
+    public Long getId() {
+        return accountNumber;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
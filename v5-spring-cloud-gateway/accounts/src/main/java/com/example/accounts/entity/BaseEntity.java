@@ -3,6 +3,7 @@ package com.example.accounts.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -47,4 +48,8 @@ public class BaseEntity {
     @LastModifiedBy
     @Column(insertable = false)
     private String updatedBy;
+
+    // every update is conditional on it: "update ... where id=? and version=?"
+    @Version
+    private Long version;
 }
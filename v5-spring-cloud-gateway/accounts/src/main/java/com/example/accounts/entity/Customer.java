@@ -1,7 +1,10 @@
 package com.example.accounts.entity;
 
+import com.example.accounts.constants.AccountsConstants;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Getter
@@ -9,10 +12,13 @@ import lombok.*;
 @ToString
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_customer_mobile_number", columnNames = "mobile_number"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AccountsConstants.CUSTOMER_CACHE_REGION)
 public class Customer extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     @Column(name = "customer_id")
     private Long customerId;
 
@@ -0,0 +1,12 @@
+package com.example.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DownstreamRejectedException extends RuntimeException {
+
+    public DownstreamRejectedException(String dependency) {
+        super(String.format("%s was not called, too many downstream calls are in flight", dependency));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DownstreamTimeoutException extends RuntimeException {
+
+    public DownstreamTimeoutException(String dependency, long timeoutMillis) {
+        super(String.format("%s did not respond within %d ms", dependency, timeoutMillis));
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.accounts.exception;
 
+import com.example.accounts.constants.AccountsConstants;
 import com.example.accounts.dto.ErrorResponseDto;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -98,6 +100,75 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, HttpStatus.NOT_FOUND);
     }
     
+    /**
+     * Handles the exception when an update was based on an outdated version of a record.
+     *
+     * @param ex the exception thrown when the version sent or the row at commit no longer matches
+     * @param webRequest the current web request from which the exception was triggered
+     * @return a ResponseEntity containing an ErrorResponseDto with details
+     *         about the error and an HTTP 409 Conflict status
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex,
+            WebRequest webRequest
+    ) {
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                webRequest.getDescription(false),
+                HttpStatus.CONFLICT,
+                AccountsConstants.MESSAGE_409,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles the exception when a page cursor cannot be decoded.
+     *
+     * @param ex the exception thrown when the cursor was not issued by this service
+     * @param webRequest the current web request from which the exception was triggered
+     * @return a ResponseEntity containing an ErrorResponseDto with details
+     *         about the error and an HTTP 400 Bad Request status
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidCursorException(
+            InvalidCursorException ex,
+            WebRequest webRequest
+    ) {
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                webRequest.getDescription(false),
+                HttpStatus.BAD_REQUEST,
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles the exception when a downstream service misses its deadline.
+     *
+     * @param ex the exception thrown when a downstream call times out
+     * @param webRequest the current web request from which the exception was triggered
+     * @return a ResponseEntity containing an ErrorResponseDto with details
+     *         about the error and an HTTP 504 Gateway Timeout status
+     */
+    @ExceptionHandler(DownstreamTimeoutException.class)
+    public ResponseEntity<ErrorResponseDto> handleDownstreamTimeoutException(
+            DownstreamTimeoutException ex,
+            WebRequest webRequest
+    ) {
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                webRequest.getDescription(false),
+                HttpStatus.GATEWAY_TIMEOUT,
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     /**
      * Handles any unspecified exceptions that occur in the system.
      *
@@ -0,0 +1,31 @@
+package com.example.accounts.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/slowqueries}: the slow statements kept by {@link SlowQueryLog}, slowest first.
+ * A DELETE empties the log, to start a measurement afresh.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueriesEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public List<SlowQueryLog.SlowQuery> slowQueries() {
+        return slowQueryLog.slowest();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
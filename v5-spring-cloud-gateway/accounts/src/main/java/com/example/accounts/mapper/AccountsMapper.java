@@ -9,6 +9,7 @@ public class AccountsMapper {
         accountsDto.setAccountNumber(String.valueOf(accounts.getAccountNumber()));
         accountsDto.setAccountType( accounts.getAccountType());
         accountsDto.setBranchAddress( accounts.getBranchAddress());
+        accountsDto.setVersion(accounts.getVersion());
         return accountsDto;
     }
 
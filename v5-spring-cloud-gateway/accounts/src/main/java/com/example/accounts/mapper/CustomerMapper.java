@@ -1,17 +1,37 @@
 package com.example.accounts.mapper;
 
 import com.example.accounts.dto.AccountsDto;
+import com.example.accounts.dto.CardsDto;
+import com.example.accounts.dto.CustomerAccountView;
 import com.example.accounts.dto.CustomerDetailsDto;
 import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.LoansDto;
 import com.example.accounts.entity.Accounts;
 import com.example.accounts.entity.Customer;
 
+import java.util.EnumSet;
+
 public class CustomerMapper {
 
     public static CustomerDto mapToCustomerDto(Customer customer, CustomerDto customerDto) {
         customerDto.setName(customer.getName());
         customerDto.setEmail(customer.getEmail());
         customerDto.setMobileNumber(customer.getMobileNumber());
+        customerDto.setVersion(customer.getVersion());
+        return customerDto;
+    }
+
+    public static CustomerDto mapToCustomerDto(CustomerAccountView view, CustomerDto customerDto) {
+        customerDto.setName(view.getName());
+        customerDto.setEmail(view.getEmail());
+        customerDto.setMobileNumber(view.getMobileNumber());
+        customerDto.setVersion(view.getCustomerVersion());
+        AccountsDto accountsDto = new AccountsDto();
+        accountsDto.setAccountNumber(String.valueOf(view.getAccountNumber()));
+        accountsDto.setAccountType(view.getAccountType());
+        accountsDto.setBranchAddress(view.getBranchAddress());
+        accountsDto.setVersion(view.getAccountVersion());
+        customerDto.setAccountsDto(accountsDto);
         return customerDto;
     }
 
@@ -22,10 +42,64 @@ public class CustomerMapper {
         return customerDetailsDto;
     }
 
+    public static CustomerDetailsDto mapToCustomerDetailsDto(CustomerDto customerDto, CustomerDetailsDto customerDetailsDto) {
+        customerDetailsDto.setName(customerDto.getName());
+        customerDetailsDto.setEmail(customerDto.getEmail());
+        customerDetailsDto.setMobileNumber(customerDto.getMobileNumber());
+        customerDetailsDto.setAccountsDto(customerDto.getAccountsDto());
+        return customerDetailsDto;
+    }
+
+    /**
+     * Copies the details, the nested accounts, cards and loans and the stale sections included,
+     * so the copy shares nothing that either side could change under the other.
+     */
+    public static CustomerDetailsDto mapToCustomerDetailsDto(CustomerDetailsDto source, CustomerDetailsDto target) {
+        target.setName(source.getName());
+        target.setEmail(source.getEmail());
+        target.setMobileNumber(source.getMobileNumber());
+        target.setAccountsDto(source.getAccountsDto() == null ? null : copyOf(source.getAccountsDto()));
+        target.setCardsDto(source.getCardsDto() == null ? null : copyOf(source.getCardsDto()));
+        target.setLoansDto(source.getLoansDto() == null ? null : copyOf(source.getLoansDto()));
+        target.setStaleSections(source.getStaleSections() == null ? null : EnumSet.copyOf(source.getStaleSections()));
+        return target;
+    }
+
     public static Customer mapToCustomer(CustomerDto customerDto, Customer customer) {
         customer.setName(customerDto.getName());
         customer.setEmail(customerDto.getEmail());
         customer.setMobileNumber(customerDto.getMobileNumber());
         return customer;
     }
+
+    private static AccountsDto copyOf(AccountsDto source) {
+        AccountsDto accountsDto = new AccountsDto();
+        accountsDto.setAccountNumber(source.getAccountNumber());
+        accountsDto.setAccountType(source.getAccountType());
+        accountsDto.setBranchAddress(source.getBranchAddress());
+        accountsDto.setVersion(source.getVersion());
+        return accountsDto;
+    }
+
+    private static CardsDto copyOf(CardsDto source) {
+        CardsDto cardsDto = new CardsDto();
+        cardsDto.setMobileNumber(source.getMobileNumber());
+        cardsDto.setCardNumber(source.getCardNumber());
+        cardsDto.setCardType(source.getCardType());
+        cardsDto.setTotalLimit(source.getTotalLimit());
+        cardsDto.setAmountUsed(source.getAmountUsed());
+        cardsDto.setAvailableAmount(source.getAvailableAmount());
+        return cardsDto;
+    }
+
+    private static LoansDto copyOf(LoansDto source) {
+        LoansDto loansDto = new LoansDto();
+        loansDto.setMobileNumber(source.getMobileNumber());
+        loansDto.setLoanNumber(source.getLoanNumber());
+        loansDto.setLoanType(source.getLoanType());
+        loansDto.setTotalLoan(source.getTotalLoan());
+        loansDto.setAmountPaid(source.getAmountPaid());
+        loansDto.setOutstandingAmount(source.getOutstandingAmount());
+        return loansDto;
+    }
 }
@@ -1,13 +1,89 @@
 package com.example.accounts.repository;
 
+import com.example.accounts.constants.AccountsConstants;
+import com.example.accounts.dto.CustomerAccountView;
+import com.example.accounts.entity.Accounts;
 import com.example.accounts.entity.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Customer> findByMobileNumber(String mobileNumber);
+
+    @Query("select new com.example.accounts.dto.CustomerAccountView(c.customerId, c.name, c.email, c.mobileNumber, "
+            + "a.accountNumber, a.accountType, a.branchAddress, c.version, a.version) "
+            + "from Customer c join Accounts a on a.customerId = c.customerId "
+            + "where c.mobileNumber = :mobileNumber")
+    Optional<CustomerAccountView> findCustomerAccountByMobileNumber(String mobileNumber);
+
+    // both rows come back managed, so they can be updated or removed without loading them again;
+    // the ids are cached, and the rows then come from the entity regions
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select c as customer, a as accounts from Customer c join Accounts a on a.customerId = c.customerId "
+            + "where c.mobileNumber = :mobileNumber")
+    Optional<CustomerWithAccount> findCustomerWithAccountByMobileNumber(String mobileNumber);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select c as customer, a as accounts from Customer c join Accounts a on a.customerId = c.customerId "
+            + "where a.accountNumber = :accountNumber")
+    Optional<CustomerWithAccount> findCustomerWithAccountByAccountNumber(Long accountNumber);
+
+    // read between the downstream calls of a bulk lookup, outside any service transaction
+    @Transactional(readOnly = true)
+    @Query("select new com.example.accounts.dto.CustomerAccountView(c.customerId, c.name, c.email, c.mobileNumber, "
+            + "a.accountNumber, a.accountType, a.branchAddress, c.version, a.version) "
+            + "from Customer c join Accounts a on a.customerId = c.customerId "
+            + "where c.mobileNumber in :mobileNumbers")
+    List<CustomerAccountView> findCustomerAccountsByMobileNumberIn(Collection<String> mobileNumbers);
+
+    @Query("select c.mobileNumber from Customer c where c.mobileNumber in :mobileNumbers")
+    Set<String> findExistingMobileNumbers(Collection<String> mobileNumbers);
+
+    // answered from idx_customer_id_created_at alone; joining here lets the planner start from accounts instead
+    @Query("select c.customerId from Customer c "
+            + "where c.customerId > :afterCustomerId and c.createdAt >= :createdFrom and c.createdAt < :createdBefore "
+            + "order by c.customerId")
+    List<Long> findCustomerIdsPage(Long afterCustomerId, LocalDateTime createdFrom, LocalDateTime createdBefore,
+                                   Limit limit);
+
+    @Query("select new com.example.accounts.dto.CustomerAccountView(c.customerId, c.name, c.email, c.mobileNumber, "
+            + "a.accountNumber, a.accountType, a.branchAddress, c.version, a.version) "
+            + "from Customer c join Accounts a on a.customerId = c.customerId "
+            + "where c.customerId in :customerIds "
+            + "order by c.customerId")
+    List<CustomerAccountView> findCustomerAccountsByCustomerIdIn(Collection<Long> customerIds);
+
+    // projections are not managed, so the persistence context stays empty however many rows are read
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AccountsConstants.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.accounts.dto.CustomerAccountView(c.customerId, c.name, c.email, c.mobileNumber, "
+            + "a.accountNumber, a.accountType, a.branchAddress, c.version, a.version) "
+            + "from Customer c join Accounts a on a.customerId = c.customerId "
+            + "order by c.customerId")
+    Stream<CustomerAccountView> streamAllCustomerAccounts();
+
+    interface CustomerWithAccount {
+
+        Customer getCustomer();
+
+        Accounts getAccounts();
+    }
 }
@@ -1,6 +1,11 @@
 package com.example.accounts.service;
 
 import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.CustomerPageDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 
 public interface AccountsService {
 
@@ -16,4 +21,25 @@ public interface AccountsService {
     boolean updateAccount(CustomerDto customerDto);
 
     boolean deleteAccount(String mobileNumber);
+
+    /**
+     * Lists customers in ascending id order, seeking past the last customer of the previous page
+     * instead of skipping rows, so every page costs the same.
+     *
+     * @param cursor      the nextCursor of the previous page, or null for the first page
+     * @param size        the maximum number of customers to return
+     * @param createdFrom only customers created on or after this day, if set
+     * @param createdTo   only customers created on or before this day, if set
+     * @return the page with the cursor of the next page
+     */
+    CustomerPageDto fetchCustomers(String cursor, int size, LocalDate createdFrom, LocalDate createdTo);
+
+    /**
+     * Writes every customer with their account as newline-delimited JSON, one record per line.
+     * Rows are read through a database cursor, so memory use does not grow with the table.
+     *
+     * @param outputStream the stream to write to, left open
+     * @return the number of records written
+     */
+    long exportAccounts(OutputStream outputStream) throws IOException;
 }
@@ -0,0 +1,22 @@
+package com.example.accounts.service;
+
+import com.example.accounts.dto.CustomerDto;
+
+public interface CustomerLookupService {
+
+    /**
+     * Looks up a customer together with their account, served from the in-process cache
+     * when possible. The returned object is shared between callers and must not be modified.
+     *
+     * @param mobileNumber the customer's mobile number
+     * @return the customer and account details
+     */
+    CustomerDto fetchCustomerAccount(String mobileNumber);
+
+    /**
+     * Drops the cached entry of a customer after their data has changed.
+     *
+     * @param mobileNumber the customer's mobile number
+     */
+    void evict(String mobileNumber);
+}
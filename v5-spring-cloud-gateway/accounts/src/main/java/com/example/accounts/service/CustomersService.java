@@ -1,8 +1,33 @@
 package com.example.accounts.service;
 
 import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDetailsSection;
+
+import java.util.List;
+import java.util.Set;
 
 public interface CustomersService {
 
-    CustomerDetailsDto fetchCustomerDetails(String mobileNNumber, String correlationId);
+    /**
+     * Fetches the customer with the requested sections; cards and loans are only called for
+     * when their section is included.
+     *
+     * @param mobileNumber  the customer's mobile number
+     * @param correlationId the correlation id forwarded to the downstream services
+     * @param sections      the sections to fetch
+     * @return the customer details with only the requested sections set
+     */
+    CustomerDetailsDto fetchCustomerDetails(String mobileNumber, String correlationId, Set<CustomerDetailsSection> sections);
+
+    /**
+     * Fetches the customer details of many customers at once. Customers and accounts are
+     * resolved with one query each and cards and loans with one batch call each.
+     *
+     * @param mobileNumbers the mobile numbers to look up; unknown numbers are skipped
+     * @param correlationId the correlation id forwarded to the downstream services
+     * @param sections      the sections to fetch
+     * @return the details of every known customer, in request order
+     */
+    List<CustomerDetailsDto> fetchCustomerDetails(List<String> mobileNumbers, String correlationId,
+                                                  Set<CustomerDetailsSection> sections);
 }
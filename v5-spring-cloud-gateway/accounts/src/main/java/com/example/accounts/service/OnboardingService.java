@@ -0,0 +1,27 @@
+package com.example.accounts.service;
+
+import com.example.accounts.dto.OnboardingReportDto;
+
+import java.io.InputStream;
+
+public interface OnboardingService {
+
+    /**
+     * Creates a customer and a savings account for every valid record of a JSON array of
+     * customers. The array is read as a stream and processed in chunks, each chunk in its own
+     * transaction, so memory use does not grow with the request beyond the report itself.
+     *
+     * @param inputStream the request body, a JSON array of CustomerDto
+     * @return one result per record read, in request order
+     */
+    OnboardingReportDto onboardCustomersFromJson(InputStream inputStream);
+
+    /**
+     * Same as {@link #onboardCustomersFromJson(InputStream)} for CSV with a header row naming
+     * the name, email and mobileNumber columns.
+     *
+     * @param inputStream the request body
+     * @return one result per record read, in request order
+     */
+    OnboardingReportDto onboardCustomersFromCsv(InputStream inputStream);
+}
@@ -0,0 +1,23 @@
+package com.example.accounts.service;
+
+import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDetailsSection;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+public interface ReactiveCustomersService {
+
+    /**
+     * Non-blocking variant of {@link CustomersService#fetchCustomerDetails(String, String, Set)}.
+     * Cards and loans are fetched concurrently with WebClient; a branch that fails or misses
+     * its deadline is left out of the response instead of failing the whole request.
+     *
+     * @param mobileNumber  the customer's mobile number
+     * @param correlationId the correlation id forwarded to the downstream services
+     * @param sections      the sections to fetch
+     * @return the customer details, or an error if the customer itself is unknown
+     */
+    Mono<CustomerDetailsDto> fetchCustomerDetails(String mobileNumber, String correlationId,
+                                                  Set<CustomerDetailsSection> sections);
+}
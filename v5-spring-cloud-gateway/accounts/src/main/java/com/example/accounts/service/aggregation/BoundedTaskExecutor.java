@@ -0,0 +1,45 @@
+package com.example.accounts.service.aggregation;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A thread per task, as with virtual threads, but at most {@code limit} tasks at a time. A task
+ * beyond the limit is rejected rather than waited for, the way a full pool with a full queue
+ * rejects, so the caller can fall back at once; the concurrency limit of
+ * {@link SimpleAsyncTaskExecutor} would block the caller instead.
+ */
+class BoundedTaskExecutor extends SimpleAsyncTaskExecutor {
+
+    private final Semaphore permits;
+
+    BoundedTaskExecutor(String threadNamePrefix, int limit) {
+        super(threadNamePrefix);
+        this.permits = new Semaphore(limit);
+    }
+
+    @Override
+    protected void doExecute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            throw new TaskRejectedException("All slots of the " + getThreadNamePrefix() + " executor are taken");
+        }
+        try {
+            super.doExecute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException | Error ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    int availableSlots() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.accounts.service.aggregation;
+
+import com.example.accounts.config.CustomerDetailsProperties;
+import com.example.accounts.exception.DownstreamRejectedException;
+import com.example.accounts.exception.DownstreamTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent hops of an aggregated read concurrently on a bounded pool.
+ * <p>
+ * Every call gets its own deadline; once it passes, the caller falls back and the thread making
+ * the call is interrupted. When the pool and its queue are full the call is not made at all and
+ * the caller falls back at once, rather than making the call itself outside any deadline.
+ * <p>
+ * The wall-clock time of every hop, measured from submission so queueing is included, is
+ * recorded under {@code customer.details.dependency}, tagged with the dependency and whether it
+ * succeeded, failed or was rejected. The slowest hop of each request is also recorded under
+ * {@code customer.details.critical.path}.
+ * <p>
+ * With virtual threads enabled every hop gets its own virtual thread instead of a pool slot, but
+ * no more hops are in flight than the pool and its queue would hold; beyond that the call is
+ * not made, as with the pool.
+ */
+@Component
+public class FanOutExecutor implements DisposableBean {
+
+    private final AsyncTaskExecutor executor;
+    private final CustomerDetailsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final HedgingExecutor hedgingExecutor;
+
+    public FanOutExecutor(CustomerDetailsProperties properties, MeterRegistry meterRegistry, Environment environment,
+                          HedgingExecutor hedgingExecutor) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.hedgingExecutor = hedgingExecutor;
+        this.executor = Threading.VIRTUAL.isActive(environment) ? virtualExecutor(properties) : pooledExecutor(properties);
+    }
+
+    private static AsyncTaskExecutor virtualExecutor(CustomerDetailsProperties properties) {
+        // admits as many hops as the pool and its queue together
+        SimpleAsyncTaskExecutor executor = new BoundedTaskExecutor("fan-out-",
+                properties.getPoolSize() + properties.getQueueCapacity());
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    private static AsyncTaskExecutor pooledExecutor(CustomerDetailsProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("fan-out-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Starts the call on the pool.
+     *
+     * @param dependency name of the hop, used for the deadline lookup and as metric tag
+     * @param call       the blocking call to make
+     * @return a handle to join with {@link #await(Hop)}
+     */
+    public <T> Hop<T> submit(String dependency, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return track(dependency, start, start(call));
+        } catch (TaskRejectedException ex) {
+            return rejected(dependency, start);
+        }
+    }
+
+    /**
+     * Like {@link #submit(String, Supplier)} for an idempotent call, which is hedged through
+     * {@link HedgingExecutor} when hedging is enabled. The deadline covers both attempts.
+     */
+    public <T> Hop<T> submitHedged(String dependency, Supplier<T> call) {
+        if (!hedgingExecutor.isEnabled()) {
+            return submit(dependency, call);
+        }
+        long start = System.nanoTime();
+        try {
+            return track(dependency, start, hedgingExecutor.execute(dependency, call, this::start));
+        } catch (TaskRejectedException ex) {
+            return rejected(dependency, start);
+        }
+    }
+
+    /**
+     * @return the outcome of the call, which interrupts the call if it is completed by its deadline
+     * @throws TaskRejectedException if the pool is saturated
+     */
+    private <T> CompletableFuture<T> start(Supplier<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                future.complete(call.get());
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+        future.whenComplete((result, ex) -> {
+            if (ex instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private <T> Hop<T> track(String dependency, long start, CompletableFuture<T> started) {
+        long timeoutMillis = properties.timeoutFor(dependency).toMillis();
+        AtomicLong elapsedNanos = new AtomicLong();
+        CompletableFuture<T> future = started
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((result, ex) -> {
+                    elapsedNanos.set(System.nanoTime() - start);
+                    record(dependency, ex == null ? "success" : "error", elapsedNanos.get());
+                });
+        return new Hop<>(dependency, timeoutMillis, future, elapsedNanos);
+    }
+
+    private <T> Hop<T> rejected(String dependency, long start) {
+        long elapsed = System.nanoTime() - start;
+        record(dependency, "rejected", elapsed);
+        return new Hop<>(dependency, properties.timeoutFor(dependency).toMillis(),
+                CompletableFuture.failedFuture(new DownstreamRejectedException(dependency)), new AtomicLong(elapsed));
+    }
+
+    /**
+     * Makes the call on the current thread while the submitted hops are in flight, timing it
+     * the same way so it takes part in the critical-path accounting.
+     */
+    public <T> Hop<T> runInline(String dependency, Supplier<T> call) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(call.get());
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        long elapsed = System.nanoTime() - start;
+        record(dependency, future.isCompletedExceptionally() ? "error" : "success", elapsed);
+        return new Hop<>(dependency, Long.MAX_VALUE, future, new AtomicLong(elapsed));
+    }
+
+    /**
+     * Waits for the hop and rethrows its failure as the original runtime exception so the
+     * existing exception handlers still apply.
+     */
+    public <T> T await(Hop<T> hop) {
+        try {
+            return hop.future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof TimeoutException) {
+                throw new DownstreamTimeoutException(hop.dependency, hop.timeoutMillis);
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Records the hop that bounded the latency of the whole request, with its time; every hop's
+     * own time is already under {@code customer.details.dependency}.
+     */
+    public void recordCriticalPath(Hop<?>... hops) {
+        Hop<?> slowest = null;
+        for (Hop<?> hop : hops) {
+            if (hop != null && (slowest == null || hop.elapsedNanos.get() > slowest.elapsedNanos.get())) {
+                slowest = hop;
+            }
+        }
+        if (slowest != null) {
+            Timer.builder("customer.details.critical.path")
+                    .tag("dependency", slowest.dependency)
+                    .register(meterRegistry)
+                    .record(slowest.elapsedNanos.get(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void record(String dependency, String outcome, long elapsedNanos) {
+        Timer.builder("customer.details.dependency")
+                .tag("dependency", dependency)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor simple) {
+            simple.close();
+        }
+    }
+
+    public static final class Hop<T> {
+
+        private final String dependency;
+        private final long timeoutMillis;
+        private final CompletableFuture<T> future;
+        private final AtomicLong elapsedNanos;
+
+        private Hop(String dependency, long timeoutMillis, CompletableFuture<T> future, AtomicLong elapsedNanos) {
+            this.dependency = dependency;
+            this.timeoutMillis = timeoutMillis;
+            this.future = future;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.accounts.service.aggregation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiting hedges to a fraction of the calls: every call deposits {@code ratio}
+ * of a token, every hedge spends a whole one, and at most {@code burst} tokens are saved up.
+ * When a dependency slows down as a whole the bucket drains and hedging stops adding load.
+ */
+class HedgeBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    HedgeBudget(double ratio, int burst) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = burst * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void onCall() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+    }
+
+    boolean tryAcquire() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+}
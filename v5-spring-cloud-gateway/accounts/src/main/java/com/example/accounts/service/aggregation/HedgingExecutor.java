@@ -0,0 +1,232 @@
+package com.example.accounts.service.aggregation;
+
+import com.example.accounts.config.HedgingProperties;
+import com.example.accounts.service.client.HedgeRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hedges idempotent reads: if the primary call has not answered once the dependency's tracked
+ * latency percentile has passed, a second call is sent and whichever succeeds first wins. The
+ * other one is cancelled; its thread is interrupted, which abandons a connection lease but
+ * not a request already on the wire, whose response is then discarded.
+ * <p>
+ * A failed primary fails the call as it would without hedging, whereas a failed hedge is
+ * ignored while the primary is still running. Only primary latencies feed the percentile, a
+ * primary that lost being counted at the time it lost, so hedging does not pull its own
+ * threshold down.
+ * <p>
+ * Per dependency, {@code customer.details.hedge.calls} counts the hedged calls,
+ * {@code customer.details.hedge.sent} the hedges sent and {@code customer.details.hedge.wins}
+ * the hedges that answered first; {@code customer.details.hedge.skipped} counts hedges held
+ * back by the budget or a saturated pool.
+ */
+@Component
+public class HedgingExecutor implements DisposableBean {
+
+    private final HedgingProperties properties;
+    private final HedgeRouting hedgeRouting;
+    private final MeterRegistry meterRegistry;
+    private final AsyncTaskExecutor executor;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Dependency> dependencies = new ConcurrentHashMap<>();
+    private final AtomicLong hedgeIds = new AtomicLong();
+
+    public HedgingExecutor(HedgingProperties properties, HedgeRouting hedgeRouting, MeterRegistry meterRegistry,
+                           Environment environment) {
+        this.properties = properties;
+        this.hedgeRouting = hedgeRouting;
+        this.meterRegistry = meterRegistry;
+        this.executor = Threading.VIRTUAL.isActive(environment) ? virtualExecutor(properties) : pooledExecutor(properties);
+    }
+
+    private static AsyncTaskExecutor virtualExecutor(HedgingProperties properties) {
+        SimpleAsyncTaskExecutor executor = new BoundedTaskExecutor("hedge-", properties.getPoolSize());
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    private static AsyncTaskExecutor pooledExecutor(HedgingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        // no queue: a saturated pool rejects, and the caller then skips the hedge
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("hedge-");
+        executor.initialize();
+        return executor;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Starts a hedged call without blocking the caller.
+     *
+     * @param dependency name of the downstream, used for the percentile, budget and metrics
+     * @param call       the idempotent call; it may run twice, on different instances
+     * @param fallback   starts the call unhedged when the hedging pool is saturated
+     * @return the outcome of the first successful attempt, or the primary's failure
+     */
+    public <T> CompletableFuture<T> execute(String dependency, Supplier<T> call,
+                                            Function<Supplier<T>, CompletableFuture<T>> fallback) {
+        Dependency state = dependencies.computeIfAbsent(dependency, Dependency::new);
+        state.calls.increment();
+        state.budget.onCall();
+
+        String hedgeId = Long.toString(hedgeIds.incrementAndGet());
+        long start = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Attempt<T> primary;
+        try {
+            primary = launch(hedgeId, false, call);
+        } catch (TaskRejectedException ex) {
+            state.skipped("saturated").increment();
+            return fallback.apply(call);
+        }
+
+        AtomicReference<Attempt<T>> hedge = new AtomicReference<>();
+        primary.future.whenComplete((value, ex) -> {
+            // recorded before completing, so the next call already sees this sample
+            if (!result.isDone()) {
+                state.latency.record(System.nanoTime() - start);
+            }
+            if (ex == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(ex);
+            }
+        });
+
+        long delayNanos = state.latency.percentileNanos();
+        ScheduledFuture<?> hedgeTimer = null;
+        if (delayNanos >= 0) {
+            long delay = Math.max(delayNanos, properties.getMinDelay().toNanos());
+            hedgeTimer = timer.schedule(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                if (!state.budget.tryAcquire()) {
+                    state.skipped("budget").increment();
+                    return;
+                }
+                try {
+                    Attempt<T> attempt = launch(hedgeId, true, call);
+                    hedge.set(attempt);
+                    state.sent.increment();
+                    if (result.isDone()) {
+                        attempt.cancelIfRunning();
+                    }
+                    attempt.future.thenAccept(value -> {
+                        if (result.complete(value)) {
+                            state.wins.increment();
+                            state.latency.record(System.nanoTime() - start);
+                        }
+                    });
+                } catch (TaskRejectedException ex) {
+                    state.skipped("saturated").increment();
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+        }
+
+        ScheduledFuture<?> pendingTimer = hedgeTimer;
+        result.whenComplete((value, ex) -> {
+            if (pendingTimer != null) {
+                pendingTimer.cancel(false);
+            }
+            primary.cancelIfRunning();
+            Attempt<T> hedgeAttempt = hedge.get();
+            if (hedgeAttempt != null) {
+                hedgeAttempt.cancelIfRunning();
+            }
+            hedgeRouting.release(hedgeId);
+        });
+        return result;
+    }
+
+    private <T> Attempt<T> launch(String hedgeId, boolean isHedge, Supplier<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                future.complete(hedgeRouting.call(hedgeId, isHedge, call));
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+        return new Attempt<>(future, task);
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor simple) {
+            simple.close();
+        }
+    }
+
+    private record Attempt<T>(CompletableFuture<T> future, Future<?> task) {
+
+        void cancelIfRunning() {
+            if (!future.isDone()) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private final class Dependency {
+
+        private final String name;
+        private final LatencyTracker latency;
+        private final HedgeBudget budget;
+        private final Counter calls;
+        private final Counter sent;
+        private final Counter wins;
+
+        private Dependency(String name) {
+            this.name = name;
+            this.latency = new LatencyTracker(properties.getPercentile(), properties.getWindowSize(),
+                    properties.getMinSamples());
+            this.budget = new HedgeBudget(properties.getBudgetRatio(), properties.getBudgetBurst());
+            this.calls = meterRegistry.counter("customer.details.hedge.calls", "dependency", name);
+            this.sent = meterRegistry.counter("customer.details.hedge.sent", "dependency", name);
+            this.wins = meterRegistry.counter("customer.details.hedge.wins", "dependency", name);
+            Gauge.builder("customer.details.hedge.delay", latency, tracker -> tracker.percentileNanos() / 1e6)
+                    .tag("dependency", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        private Counter skipped(String reason) {
+            return meterRegistry.counter("customer.details.hedge.skipped", "dependency", name, "reason", reason);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.accounts.service.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * Percentile of the most recent latencies of one dependency, kept in a ring buffer and
+ * recomputed every few samples so reading it on the call path is a volatile load.
+ */
+class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 20;
+
+    private final double percentile;
+    private final int minSamples;
+    private final long[] samples;
+    private int next;
+    private long count;
+    private volatile long percentileNanos = -1;
+
+    LatencyTracker(double percentile, int windowSize, int minSamples) {
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.samples = new long[windowSize];
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count++;
+        if (count >= minSamples && count % RECOMPUTE_EVERY == 0) {
+            long[] window = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            Arrays.sort(window);
+            percentileNanos = window[(int) Math.ceil(percentile * window.length) - 1];
+        }
+    }
+
+    /**
+     * @return the tracked percentile in nanoseconds, or -1 while there are too few samples
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
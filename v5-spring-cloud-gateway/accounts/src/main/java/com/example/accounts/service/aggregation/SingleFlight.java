@@ -0,0 +1,66 @@
+package com.example.accounts.service.aggregation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the computation and
+ * everyone arriving while it is in flight waits for and shares its result, or its exception.
+ * Nothing is kept once the computation finishes, so the next caller starts a fresh one.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key  - Key identifying the computation
+     * @param call - Computation to run if none is in flight for the key
+     * @return the result of the shared computation
+     */
+    public V execute(K key, Supplier<V> call) {
+        return execute(key, call, () -> { });
+    }
+
+    /**
+     * @param key    - Key identifying the computation
+     * @param call   - Computation to run if none is in flight for the key
+     * @param onJoin - Run when this caller joins a computation already in flight
+     * @return the result of the shared computation
+     */
+    public V execute(K key, Supplier<V> call, Runnable onJoin) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            onJoin.run();
+            return join(existing);
+        }
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            // hand waiters the leader's exception so the usual exception handlers apply to them too
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.accounts.service.client;
+
+import com.example.accounts.dto.CardsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Serves the last known cards while the cards service is failing, its circuit is open or
+ * its bulkhead is full.
+ */
+@Component
+public class CardsFallbackFactory implements FallbackFactory<CardsFeignClient> {
+
+    private final LastKnownDetailsCache lastKnownDetailsCache;
+    private final MeterRegistry meterRegistry;
+
+    public CardsFallbackFactory(LastKnownDetailsCache lastKnownDetailsCache, MeterRegistry meterRegistry) {
+        this.lastKnownDetailsCache = lastKnownDetailsCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public CardsFeignClient create(Throwable cause) {
+        FeignFallbacks.rethrowIfNotServable(cause);
+        FeignFallbacks.recordFallback(meterRegistry, "cards", cause);
+        return new CardsFeignClient() {
+            @Override
+            public ResponseEntity<CardsDto> fetchCardDetails(String correlationId, String mobileNumber) {
+                return lastKnownDetailsCache.lastKnownCards(mobileNumber);
+            }
+
+            @Override
+            public ResponseEntity<List<CardsDto>> fetchCardDetailsBulk(String correlationId,
+                                                                       List<String> mobileNumbers) {
+                return lastKnownDetailsCache.lastKnownCards(mobileNumbers);
+            }
+        };
+    }
+}
@@ -1,18 +1,34 @@
 package com.example.accounts.service.client;
 
+import com.example.accounts.constants.AccountsConstants;
 import com.example.accounts.dto.CardsDto;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient("cards")
+import java.util.List;
+
+/**
+ * Asks for Smile first: the binary encoding is smaller and cheaper to parse than JSON. An
+ * instance that only speaks JSON still answers, as JSON is accepted as well.
+ */
+@FeignClient(name = "cards", fallbackFactory = CardsFallbackFactory.class)
 public interface CardsFeignClient {
 
-    @GetMapping(value = "/api/fetch", consumes = "application/json")
+    @GetMapping(value = "/api/fetch", consumes = "application/json",
+            headers = AccountsConstants.PREFER_SMILE_ACCEPT_HEADER)
     ResponseEntity<CardsDto> fetchCardDetails(
             @RequestHeader("mybank-correlation-id") String correlationId,
             @RequestParam String mobileNumber);
+
+    @PostMapping(value = "/api/fetchBulk", consumes = "application/json",
+            headers = AccountsConstants.PREFER_SMILE_ACCEPT_HEADER)
+    ResponseEntity<List<CardsDto>> fetchCardDetailsBulk(
+            @RequestHeader("mybank-correlation-id") String correlationId,
+            @RequestBody List<String> mobileNumbers);
 }
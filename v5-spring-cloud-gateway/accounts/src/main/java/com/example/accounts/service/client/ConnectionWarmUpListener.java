@@ -0,0 +1,98 @@
+package com.example.accounts.service.client;
+
+import com.example.accounts.config.FeignClientPoolProperties;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opens a pooled connection to every instance of the Feign targets as soon as Eureka reports it,
+ * so the first customer request routed to a new instance does not pay for the TCP handshake.
+ */
+@Component
+public class ConnectionWarmUpListener implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionWarmUpListener.class);
+
+    private final DiscoveryClient discoveryClient;
+    private final CloseableHttpClient httpClient;
+    private final FeignClientPoolProperties properties;
+    // registry refreshes arrive on Eureka's refresh thread; warm-ups run here so they never delay it
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "feign-warm-up");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<String> knownInstances = new HashSet<>();
+
+    public ConnectionWarmUpListener(DiscoveryClient discoveryClient, CloseableHttpClient httpClient,
+                                    FeignClientPoolProperties properties) {
+        this.discoveryClient = discoveryClient;
+        this.httpClient = httpClient;
+        this.properties = properties;
+    }
+
+    @EventListener(HeartbeatEvent.class)
+    public void onRegistryRefresh() {
+        if (!properties.isWarmUpEnabled()) {
+            return;
+        }
+        executor.execute(this::warmUpNewInstances);
+    }
+
+    private void warmUpNewInstances() {
+        Set<String> current = new HashSet<>();
+        for (String serviceId : properties.getWarmUpServices()) {
+            List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+            for (ServiceInstance instance : instances) {
+                String key = serviceId + "@" + instance.getUri();
+                current.add(key);
+                if (!knownInstances.contains(key)) {
+                    warmUp(instance);
+                }
+            }
+        }
+        knownInstances.retainAll(current);
+        knownInstances.addAll(current);
+    }
+
+    private void warmUp(ServiceInstance instance) {
+        HttpGet request = new HttpGet(instance.getUri().resolve(properties.getWarmUpPath()));
+        Timeout timeout = Timeout.of(properties.getWarmUpTimeout());
+        request.setConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(timeout)
+                .setResponseTimeout(timeout)
+                .build());
+        try {
+            // the response must be consumed for the connection to go back to the pool
+            httpClient.execute(request, response -> {
+                EntityUtils.consume(response.getEntity());
+                return null;
+            });
+            logger.debug("Warmed up connection to {} {}", instance.getServiceId(), instance.getUri());
+        } catch (Exception ex) {
+            logger.debug("Warm-up of {} {} failed: {}", instance.getServiceId(), instance.getUri(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.accounts.service.client;
+
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Shared decisions of the cards and loans fallbacks.
+ */
+final class FeignFallbacks {
+
+    private FeignFallbacks() {
+    }
+
+    /**
+     * Client errors such as a 404 are answers rather than outages: they are rethrown instead of
+     * being papered over with stale data. So are failures of a hedge, whose primary is still
+     * running and should not lose the race to a stale copy.
+     */
+    static void rethrowIfNotServable(Throwable cause) {
+        if (!(cause instanceof FeignException.FeignClientException) && !HedgeRouting.isHedgeAttempt()) {
+            return;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    static void recordFallback(MeterRegistry meterRegistry, String dependency, Throwable cause) {
+        meterRegistry.counter("customer.details.fallback", "dependency", dependency, "reason", reason(cause))
+                .increment();
+    }
+
+    private static String reason(Throwable cause) {
+        if (cause instanceof CallNotPermittedException) {
+            return "circuit-open";
+        }
+        if (cause instanceof BulkheadFullException) {
+            return "bulkhead-full";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.accounts.service.client;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Drops the instance serving the primary attempt from the candidates for its hedge. When that
+ * instance is the only one left the list is returned as is, so the hedge still goes out.
+ */
+public class HedgeAwareServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final HedgeRouting hedgeRouting;
+
+    public HedgeAwareServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, HedgeRouting hedgeRouting) {
+        super(delegate);
+        this.hedgeRouting = hedgeRouting;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get();
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get(Request request) {
+        if (!(request.getContext() instanceof RequestDataContext context) || context.getClientRequest() == null) {
+            return delegate.get(request);
+        }
+        String avoid = hedgeRouting.instanceToAvoid(context.getClientRequest().getHeaders());
+        if (avoid == null) {
+            return delegate.get(request);
+        }
+        return delegate.get(request).map(instances -> {
+            List<ServiceInstance> others = instances.stream()
+                    .filter(instance -> !avoid.equals(HedgeRouting.instanceKey(instance)))
+                    .toList();
+            return others.isEmpty() ? instances : others;
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.accounts.service.client;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells {@link HedgeRouting} which instance the load balancer picked for a primary attempt.
+ */
+@Component
+public class HedgeLoadBalancerLifecycle
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final HedgeRouting hedgeRouting;
+
+    public HedgeLoadBalancerLifecycle(HedgeRouting hedgeRouting) {
+        this.hedgeRouting = hedgeRouting;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse != null && lbResponse.hasServer() && request.getContext().getClientRequest() != null) {
+            hedgeRouting.primaryChosen(request.getContext().getClientRequest().getHeaders(), lbResponse.getServer());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+    }
+}
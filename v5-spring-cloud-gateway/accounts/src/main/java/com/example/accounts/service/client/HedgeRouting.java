@@ -0,0 +1,93 @@
+package com.example.accounts.service.client;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the hedge of a call off the instance its primary went to.
+ * <p>
+ * Each attempt runs with its hedge id bound to the thread, which this interceptor copies into
+ * request headers. The load balancer sees those headers: {@link HedgeLoadBalancerLifecycle}
+ * remembers the instance picked for the primary and {@link HedgeAwareServiceInstanceListSupplier}
+ * leaves it out of the candidates for the hedge.
+ */
+@Component
+public class HedgeRouting implements RequestInterceptor {
+
+    public static final String HEDGE_ID_HEADER = "mybank-hedge-id";
+    public static final String HEDGE_ATTEMPT_HEADER = "mybank-hedge-attempt";
+    public static final String PRIMARY = "primary";
+    public static final String HEDGE = "hedge";
+
+    private static final ThreadLocal<Attempt> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, String> primaryInstances = new ConcurrentHashMap<>();
+
+    /**
+     * Makes the call with the attempt bound to the current thread.
+     */
+    public <T> T call(String hedgeId, boolean hedge, Supplier<T> call) {
+        CURRENT.set(new Attempt(hedgeId, hedge ? HEDGE : PRIMARY));
+        try {
+            return call.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return whether the current thread is making the hedge of a call
+     */
+    public static boolean isHedgeAttempt() {
+        Attempt attempt = CURRENT.get();
+        return attempt != null && HEDGE.equals(attempt.kind());
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        Attempt attempt = CURRENT.get();
+        if (attempt != null) {
+            template.header(HEDGE_ID_HEADER, attempt.hedgeId());
+            template.header(HEDGE_ATTEMPT_HEADER, attempt.kind());
+        }
+    }
+
+    void primaryChosen(HttpHeaders headers, ServiceInstance instance) {
+        String hedgeId = headers.getFirst(HEDGE_ID_HEADER);
+        if (hedgeId != null && PRIMARY.equals(headers.getFirst(HEDGE_ATTEMPT_HEADER))) {
+            primaryInstances.put(hedgeId, instanceKey(instance));
+        }
+    }
+
+    /**
+     * @return the instance to avoid for this request, or {@code null} if it is not a hedge
+     */
+    String instanceToAvoid(HttpHeaders headers) {
+        String hedgeId = headers.getFirst(HEDGE_ID_HEADER);
+        if (hedgeId == null || !HEDGE.equals(headers.getFirst(HEDGE_ATTEMPT_HEADER))) {
+            return null;
+        }
+        return primaryInstances.get(hedgeId);
+    }
+
+    /**
+     * Forgets the primary's instance once the hedged call has completed.
+     */
+    public void release(String hedgeId) {
+        primaryInstances.remove(hedgeId);
+    }
+
+    static String instanceKey(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private record Attempt(String hedgeId, String kind) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.accounts.service.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-instance latency and in-flight count of the load-balanced calls, which
+ * {@link LatencyAwareLoadBalancer} turns into a cost.
+ * <p>
+ * Latency is a peak-sensitive EWMA: a sample above the average replaces it, so a replica that
+ * starts stalling is avoided at once, while lower samples are blended in with a weight that
+ * grows with the time since the last one. The average also decays towards zero while an
+ * instance gets no traffic, so one that was avoided gets probed again once it has had time
+ * to recover.
+ * <p>
+ * Instances that drop out of their service's instance list are forgotten along with their
+ * gauges, so replaced or scaled-away instances are not reported, or held in memory, forever.
+ */
+public class InstanceLatencyStats {
+
+    // cost of an instance that has requests in flight but has not answered any yet
+    private static final double UNKNOWN_LATENCY_PENALTY = 1e12;
+
+    private final Map<String, Instance> instances = new ConcurrentHashMap<>();
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    public InstanceLatencyStats(Duration decay, Duration failurePenalty, MeterRegistry meterRegistry) {
+        this(decay, failurePenalty, meterRegistry, System::nanoTime);
+    }
+
+    InstanceLatencyStats(Duration decay, Duration failurePenalty, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.decayNanos = decay.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    public void onStart(ServiceInstance instance) {
+        instance(instance).inFlight.incrementAndGet();
+    }
+
+    /**
+     * @param elapsedNanos time from the start of the call, or -1 when it is unknown
+     * @param failed       whether the call failed without a response; counted as the failure
+     *                     penalty, so an instance refusing connections does not look fast
+     */
+    public void onComplete(ServiceInstance instance, long elapsedNanos, boolean failed) {
+        Instance stats = instance(instance);
+        stats.inFlight.decrementAndGet();
+        if (failed) {
+            stats.observe(Math.max(elapsedNanos, failurePenaltyNanos), nanoClock.getAsLong());
+        } else if (elapsedNanos >= 0) {
+            stats.observe(elapsedNanos, nanoClock.getAsLong());
+        }
+    }
+
+    /**
+     * Expected cost of sending one more request to the instance: its latency scaled by the
+     * requests it already has in flight. Lower is better.
+     */
+    public double cost(ServiceInstance instance) {
+        Instance stats = instance(instance);
+        double latency = stats.decayedLatency(nanoClock.getAsLong());
+        int inFlight = stats.inFlight.get();
+        if (latency == 0 && inFlight > 0) {
+            return UNKNOWN_LATENCY_PENALTY + inFlight;
+        }
+        return latency * (inFlight + 1);
+    }
+
+    /**
+     * Forgets the service's instances that are not in its current instance list, and removes
+     * their gauges. Discovery clients disagree on the case of service ids, so they are compared
+     * ignoring it.
+     */
+    public void retainOnly(String serviceId, Collection<ServiceInstance> current) {
+        Set<String> keys = new HashSet<>();
+        current.forEach(instance -> keys.add(key(instance)));
+        instances.forEach((key, stats) -> {
+            if (stats.serviceId.equalsIgnoreCase(serviceId) && !keys.contains(key)) {
+                // under the key's lock, so a call registering the instance again waits for the removal
+                instances.computeIfPresent(key, (ignored, existing) -> {
+                    if (existing != stats) {
+                        return existing;
+                    }
+                    stats.meters.forEach(meterRegistry::remove);
+                    return null;
+                });
+            }
+        });
+    }
+
+    private Instance instance(ServiceInstance instance) {
+        return instances.computeIfAbsent(key(instance), ignored -> register(instance));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private Instance register(ServiceInstance serviceInstance) {
+        Instance stats = new Instance(String.valueOf(serviceInstance.getServiceId()));
+        String instanceTag = serviceInstance.getHost() + ":" + serviceInstance.getPort();
+        stats.meters = List.of(
+                Gauge.builder("loadbalancer.instance.latency", stats, s -> s.decayedLatency(nanoClock.getAsLong()) / 1e6)
+                        .tag("service", stats.serviceId)
+                        .tag("instance", instanceTag)
+                        .baseUnit("milliseconds")
+                        .register(meterRegistry),
+                Gauge.builder("loadbalancer.instance.in.flight", stats.inFlight, AtomicInteger::get)
+                        .tag("service", stats.serviceId)
+                        .tag("instance", instanceTag)
+                        .register(meterRegistry));
+        return stats;
+    }
+
+    private final class Instance {
+
+        private final String serviceId;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private List<Meter> meters = List.of();
+        private double latency;
+        private long stamp;
+
+        Instance(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        synchronized void observe(long rttNanos, long now) {
+            if (rttNanos > latency) {
+                latency = rttNanos;
+            } else {
+                double weight = Math.exp(-Math.max(now - stamp, 0) / decayNanos);
+                latency = latency * weight + rttNanos * (1 - weight);
+            }
+            stamp = now;
+        }
+
+        synchronized double decayedLatency(long now) {
+            return latency * Math.exp(-Math.max(now - stamp, 0) / decayNanos);
+        }
+    }
+}
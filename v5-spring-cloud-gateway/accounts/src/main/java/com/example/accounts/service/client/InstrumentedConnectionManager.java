@@ -0,0 +1,145 @@
+package com.example.accounts.service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Wraps the Feign connection pool to time how long callers wait for a connection
+ * ({@code feign.http.pool.acquire}) and to count the connections actually opened
+ * ({@code feign.http.pool.connections.created}); a rising creation rate means connections
+ * are not being reused. Pool control is delegated so the client's idle evictor still works.
+ */
+public class InstrumentedConnectionManager implements HttpClientConnectionManager, ConnPoolControl<HttpRoute> {
+
+    private final PoolingHttpClientConnectionManager delegate;
+    private final Timer acquireTimer;
+    private final Counter createdCounter;
+
+    public InstrumentedConnectionManager(PoolingHttpClientConnectionManager delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.acquireTimer = Timer.builder("feign.http.pool.acquire").register(meterRegistry);
+        this.createdCounter = Counter.builder("feign.http.pool.connections.created").register(meterRegistry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        long start = System.nanoTime();
+        LeaseRequest leaseRequest = delegate.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    return leaseRequest.get(timeout);
+                } finally {
+                    acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return leaseRequest.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        // only called for a leased endpoint that has no open connection yet
+        createdCounter.increment();
+        delegate.connect(endpoint, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public void closeIdle(TimeValue idleTime) {
+        delegate.closeIdle(idleTime);
+    }
+
+    @Override
+    public void closeExpired() {
+        delegate.closeExpired();
+    }
+
+    @Override
+    public Set<HttpRoute> getRoutes() {
+        return delegate.getRoutes();
+    }
+
+    @Override
+    public void setMaxTotal(int max) {
+        delegate.setMaxTotal(max);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return delegate.getMaxTotal();
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        delegate.setDefaultMaxPerRoute(max);
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return delegate.getDefaultMaxPerRoute();
+    }
+
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        delegate.setMaxPerRoute(route, max);
+    }
+
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        return delegate.getMaxPerRoute(route);
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return delegate.getTotalStats();
+    }
+
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return delegate.getStats(route);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.accounts.service.client;
+
+import com.example.accounts.config.CustomerDetailsProperties;
+import com.example.accounts.constants.AccountsConstants;
+import com.example.accounts.dto.CardsDto;
+import com.example.accounts.dto.LoansDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The last cards and loans seen for each mobile number, which the Feign fallbacks serve while
+ * a downstream is failing. Responses built from it carry the {@code mybank-stale} header.
+ */
+@Component
+public class LastKnownDetailsCache {
+
+    private final Cache<String, CardsDto> cards;
+    private final Cache<String, LoansDto> loans;
+
+    public LastKnownDetailsCache(CustomerDetailsProperties properties, MeterRegistry meterRegistry) {
+        this.cards = build(properties);
+        this.loans = build(properties);
+        CaffeineCacheMetrics.monitor(meterRegistry, cards, "lastKnownCards");
+        CaffeineCacheMetrics.monitor(meterRegistry, loans, "lastKnownLoans");
+    }
+
+    private static <V> Cache<String, V> build(CustomerDetailsProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getLastKnownMaximumSize())
+                .expireAfterWrite(properties.getLastKnownTtl())
+                .recordStats()
+                .build();
+    }
+
+    public ResponseEntity<CardsDto> rememberCards(ResponseEntity<CardsDto> response) {
+        return remember(cards, response, CardsDto::getMobileNumber);
+    }
+
+    public ResponseEntity<List<CardsDto>> rememberAllCards(ResponseEntity<List<CardsDto>> response) {
+        return rememberAll(cards, response, CardsDto::getMobileNumber);
+    }
+
+    public ResponseEntity<LoansDto> rememberLoans(ResponseEntity<LoansDto> response) {
+        return remember(loans, response, LoansDto::getMobileNumber);
+    }
+
+    public ResponseEntity<List<LoansDto>> rememberAllLoans(ResponseEntity<List<LoansDto>> response) {
+        return rememberAll(loans, response, LoansDto::getMobileNumber);
+    }
+
+    public ResponseEntity<CardsDto> lastKnownCards(String mobileNumber) {
+        return stale(cards.getIfPresent(mobileNumber));
+    }
+
+    public ResponseEntity<List<CardsDto>> lastKnownCards(Collection<String> mobileNumbers) {
+        return stale(lookupAll(cards, mobileNumbers));
+    }
+
+    public ResponseEntity<LoansDto> lastKnownLoans(String mobileNumber) {
+        return stale(loans.getIfPresent(mobileNumber));
+    }
+
+    public ResponseEntity<List<LoansDto>> lastKnownLoans(Collection<String> mobileNumbers) {
+        return stale(lookupAll(loans, mobileNumbers));
+    }
+
+    public static boolean isStale(ResponseEntity<?> response) {
+        return response != null && response.getHeaders().containsKey(AccountsConstants.STALE_RESPONSE_HEADER);
+    }
+
+    private static <V> ResponseEntity<V> remember(Cache<String, V> cache, ResponseEntity<V> response,
+                                                  Function<V, String> mobileNumber) {
+        if (!isStale(response) && response.getBody() != null) {
+            cache.put(mobileNumber.apply(response.getBody()), response.getBody());
+        }
+        return response;
+    }
+
+    private static <V> ResponseEntity<List<V>> rememberAll(Cache<String, V> cache, ResponseEntity<List<V>> response,
+                                                           Function<V, String> mobileNumber) {
+        if (!isStale(response) && response.getBody() != null) {
+            for (V dto : response.getBody()) {
+                cache.put(mobileNumber.apply(dto), dto);
+            }
+        }
+        return response;
+    }
+
+    private static <V> List<V> lookupAll(Cache<String, V> cache, Collection<String> mobileNumbers) {
+        return List.copyOf(cache.getAllPresent(mobileNumbers).values());
+    }
+
+    private static <V> ResponseEntity<V> stale(V body) {
+        return ResponseEntity.ok().header(AccountsConstants.STALE_RESPONSE_HEADER, "true").body(body);
+    }
+}
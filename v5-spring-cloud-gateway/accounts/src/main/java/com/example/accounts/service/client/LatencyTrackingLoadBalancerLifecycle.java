@@ -0,0 +1,60 @@
+package com.example.accounts.service.client;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds the in-flight count and latency of every load-balanced call into
+ * {@link InstanceLatencyStats}.
+ */
+@Component
+public class LatencyTrackingLoadBalancerLifecycle
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final InstanceLatencyStats stats;
+
+    public LatencyTrackingLoadBalancerLifecycle(InstanceLatencyStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        request.getContext().setRequestStartTime(System.nanoTime());
+        stats.onStart(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        long elapsedNanos = -1;
+        Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() != null && request.getContext().getRequestStartTime() != 0) {
+            elapsedNanos = System.nanoTime() - request.getContext().getRequestStartTime();
+        }
+        stats.onComplete(lbResponse.getServer(), elapsedNanos,
+                completionContext.status() == CompletionContext.Status.FAILED);
+    }
+}
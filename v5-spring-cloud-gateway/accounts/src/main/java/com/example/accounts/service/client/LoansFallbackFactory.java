@@ -0,0 +1,43 @@
+package com.example.accounts.service.client;
+
+import com.example.accounts.dto.LoansDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Serves the last known loans while the loans service is failing, its circuit is open or
+ * its bulkhead is full.
+ */
+@Component
+public class LoansFallbackFactory implements FallbackFactory<LoansFeignClient> {
+
+    private final LastKnownDetailsCache lastKnownDetailsCache;
+    private final MeterRegistry meterRegistry;
+
+    public LoansFallbackFactory(LastKnownDetailsCache lastKnownDetailsCache, MeterRegistry meterRegistry) {
+        this.lastKnownDetailsCache = lastKnownDetailsCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public LoansFeignClient create(Throwable cause) {
+        FeignFallbacks.rethrowIfNotServable(cause);
+        FeignFallbacks.recordFallback(meterRegistry, "loans", cause);
+        return new LoansFeignClient() {
+            @Override
+            public ResponseEntity<LoansDto> fetchLoanDetails(String correlationId, String mobileNumber) {
+                return lastKnownDetailsCache.lastKnownLoans(mobileNumber);
+            }
+
+            @Override
+            public ResponseEntity<List<LoansDto>> fetchLoanDetailsBulk(String correlationId,
+                                                                       List<String> mobileNumbers) {
+                return lastKnownDetailsCache.lastKnownLoans(mobileNumbers);
+            }
+        };
+    }
+}
@@ -1,18 +1,33 @@
 package com.example.accounts.service.client;
 
+import com.example.accounts.constants.AccountsConstants;
 import com.example.accounts.dto.LoansDto;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient("loans")
+import java.util.List;
+
+/**
+ * Asks for Smile first, with JSON still accepted; see {@link CardsFeignClient}.
+ */
+@FeignClient(name = "loans", fallbackFactory = LoansFallbackFactory.class)
 public interface LoansFeignClient {
 
-    @GetMapping(value = "/api/fetch", consumes = "application/json")
+    @GetMapping(value = "/api/fetch", consumes = "application/json",
+            headers = AccountsConstants.PREFER_SMILE_ACCEPT_HEADER)
     ResponseEntity<LoansDto> fetchLoanDetails(
             @RequestHeader("mybank-correlation-id") String correlationId,
             @RequestParam String mobileNumber);
+
+    @PostMapping(value = "/api/fetchBulk", consumes = "application/json",
+            headers = AccountsConstants.PREFER_SMILE_ACCEPT_HEADER)
+    ResponseEntity<List<LoansDto>> fetchLoanDetailsBulk(
+            @RequestHeader("mybank-correlation-id") String correlationId,
+            @RequestBody List<String> mobileNumbers);
 }
@@ -0,0 +1,19 @@
+package com.example.accounts.service.identifier;
+
+import com.example.accounts.constants.AccountsConstants;
+import org.springframework.stereotype.Component;
+
+/**
+ * Allocates ten-digit account numbers.
+ */
+@Component
+public class AccountNumberAllocator extends BlockNumberAllocator {
+
+    public AccountNumberAllocator(NumberBlockSource blockSource) {
+        super(blockSource, "account_number", AccountsConstants.NUMBER_BLOCK_SIZE, 1_000_000_000L, 9_000_000_000L);
+    }
+
+    public long nextAccountNumber() {
+        return next();
+    }
+}
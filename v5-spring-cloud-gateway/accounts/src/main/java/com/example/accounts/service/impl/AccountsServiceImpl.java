@@ -2,29 +2,82 @@ package com.example.accounts.service.impl;
 
 import com.example.accounts.constants.AccountsConstants;
 import com.example.accounts.dto.AccountsDto;
+import com.example.accounts.dto.CustomerAccountView;
 import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.CustomerPageDto;
 import com.example.accounts.entity.Accounts;
 import com.example.accounts.entity.Customer;
 import com.example.accounts.exception.CustomerAlreadyExistsException;
+import com.example.accounts.exception.InvalidCursorException;
 import com.example.accounts.exception.ResourceNotFoundException;
 import com.example.accounts.mapper.AccountsMapper;
 import com.example.accounts.mapper.CustomerMapper;
 import com.example.accounts.repository.AccountsRepository;
 import com.example.accounts.repository.CustomerRepository;
+import com.example.accounts.repository.CustomerRepository.CustomerWithAccount;
 import com.example.accounts.service.AccountsService;
-import lombok.AllArgsConstructor;
+import com.example.accounts.service.CustomerLookupService;
+import com.example.accounts.service.identifier.AccountNumberAllocator;
+import com.example.accounts.sharding.ShardRouter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Optional;
-import java.util.Random;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 
 @Service
-@AllArgsConstructor
 public class AccountsServiceImpl implements AccountsService {
 
     private final CustomerRepository customerRepository;
     private final AccountsRepository accountsRepository;
+    private final CustomerLookupService customerLookupService;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AccountsServiceImpl(CustomerRepository customerRepository, AccountsRepository accountsRepository,
+                               CustomerLookupService customerLookupService,
+                               AccountNumberAllocator accountNumberAllocator, ObjectMapper objectMapper,
+                               ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.customerRepository = customerRepository;
+        this.accountsRepository = accountsRepository;
+        this.customerLookupService = customerLookupService;
+        this.accountNumberAllocator = accountNumberAllocator;
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
 
     /**
      * Creates a new account for the given customer details.
@@ -33,23 +86,35 @@ public class AccountsServiceImpl implements AccountsService {
      */
     @Override
     public void createAccount(CustomerDto customerDto) {
-        Customer customer = CustomerMapper.mapToCustomer(customerDto, new Customer());
-        Optional<Customer> optionalCustomer = customerRepository.findByMobileNumber(customerDto.getMobileNumber());
-        if (optionalCustomer.isPresent()) {
-            throw new CustomerAlreadyExistsException(
-                    String.format("Customer with mobile number %s already exists", customerDto.getMobileNumber()));
-        }
+        // taken before the transaction starts: a new block of numbers takes a connection of its own,
+        // and parallel creates each holding one while they wait for it could exhaust the pool
+        long accountNumber = accountNumberAllocator.nextAccountNumber();
+        shardRouter.onShardOf(customerDto.getMobileNumber(), () -> transaction.execute(status -> {
+            Customer customer = CustomerMapper.mapToCustomer(customerDto, new Customer());
+            Customer savedCustomer;
+            try {
+                // the unique constraint on mobile_number is the duplicate check
+                savedCustomer = customerRepository.saveAndFlush(customer);
+            } catch (DataIntegrityViolationException ex) {
+                if (!isUniqueViolation(ex)) {
+                    throw ex;
+                }
+                throw new CustomerAlreadyExistsException(
+                        String.format("Customer with mobile number %s already exists", customerDto.getMobileNumber()));
+            }
+            return accountsRepository.save(createNewAccount(savedCustomer, accountNumber));
+        }));
+    }
 
-        Customer savedCustomer = customerRepository.save(customer);
-        accountsRepository.save(createNewAccount(savedCustomer));
+    private static boolean isUniqueViolation(DataIntegrityViolationException ex) {
+        return ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
     }
 
-    private Accounts createNewAccount(Customer customer) {
+    private static Accounts createNewAccount(Customer customer, long accountNumber) {
         Accounts newAccounts = new Accounts();
         newAccounts.setCustomerId(customer.getCustomerId());
-        long randomAccNumber = 1000000000L + new Random().nextInt(900000000);
-
-        newAccounts.setAccountNumber(randomAccNumber);
+        newAccounts.setAccountNumber(accountNumber);
         newAccounts.setAccountType(AccountsConstants.SAVINGS);
         newAccounts.setBranchAddress(AccountsConstants.ADDRESS);
         return newAccounts;
@@ -57,57 +122,169 @@ public class AccountsServiceImpl implements AccountsService {
 
     @Override
     public CustomerDto fetchAccount(String mobileNumber) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
-        );
-
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-                () -> new ResourceNotFoundException("Account", "customerId", customer.getCustomerId().toString())
-        );
-
-        CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
-        customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
-
-        return customerDto;
+        return customerLookupService.fetchCustomerAccount(mobileNumber);
     }
 
+    /**
+     * Updates the account and customer in one transaction. Both rows are read with one statement,
+     * or none when the lookup is in the query cache, and the two versioned updates are the only
+     * other statements sent; a row that changed since the caller fetched it fails with an
+     * optimistic locking exception.
+     * <p>
+     * With sharding the rows are looked for on the shard of the mobile number given: as the shard
+     * key, a customer cannot be moved to a number that lives on another shard. The shard is bound
+     * for the whole transaction: the reads may send no statement at all, so the first connection
+     * can be the one the updates are flushed on at commit.
+     */
     @Override
     public boolean updateAccount(CustomerDto customerDto) {
-        boolean isUpdated = false;
         AccountsDto accountsDto = customerDto.getAccountsDto();
-
-        if (accountsDto != null) {
-            Accounts accounts = accountsRepository.findById(Long.valueOf(accountsDto.getAccountNumber())).orElseThrow(
-                    () -> new ResourceNotFoundException("Account", "accountNumber", accountsDto.getAccountNumber().toString())
+        if (accountsDto == null) {
+            return false;
+        }
+        return shardRouter.onShardOf(customerDto.getMobileNumber(), () -> transaction.execute(status -> {
+            CustomerWithAccount customerAccount = customerRepository.findCustomerWithAccountByAccountNumber(
+                    Long.valueOf(accountsDto.getAccountNumber())).orElseThrow(
+                    () -> new ResourceNotFoundException("Account", "accountNumber", accountsDto.getAccountNumber())
             );
+            Accounts accounts = customerAccount.getAccounts();
+            checkVersion(accounts.getVersion(), accountsDto.getVersion(), Accounts.class, accounts.getAccountNumber());
+            Customer customer = customerAccount.getCustomer();
+            checkVersion(customer.getVersion(), customerDto.getVersion(), Customer.class, customer.getCustomerId());
 
+            String previousMobileNumber = customer.getMobileNumber();
             AccountsMapper.mapToAccounts(accountsDto, accounts);
-            accounts = accountsRepository.save(accounts);
-
-            Long customerId = accounts.getCustomerId();
-            Customer customer = customerRepository.findById(customerId).orElseThrow(
-                    () -> new ResourceNotFoundException("Customer", "customerId", customerId.toString())
-            );
-
             CustomerMapper.mapToCustomer(customerDto, customer);
-            customerRepository.save(customer);
-            isUpdated = true;
+            // a version conflict found at commit rolls back before anything is evicted
+            evictAfterCommit(previousMobileNumber, customer.getMobileNumber());
+            return true;
+        }));
+    }
+
+    private static void checkVersion(Long currentVersion, Long expectedVersion, Class<?> entityClass, Object id) {
+        if (!Objects.equals(currentVersion, expectedVersion)) {
+            throw new ObjectOptimisticLockingFailureException(entityClass, id);
         }
-        return isUpdated;
     }
 
     @Override
     public boolean deleteAccount(String mobileNumber) {
-        Long customerId = customerRepository.findByMobileNumber(mobileNumber)
-                .map(Customer::getCustomerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
+        // bound before the transaction starts, so the deletes flushed at commit go to the same shard
+        return shardRouter.onShardOf(mobileNumber, () -> transaction.execute(status -> {
+            CustomerWithAccount customerAccount = customerRepository.findCustomerWithAccountByMobileNumber(mobileNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
+
+            // removing the managed rows evicts just them, with no further read; a bulk delete
+            // statement would empty both cache regions
+            accountsRepository.delete(customerAccount.getAccounts());
+            customerRepository.delete(customerAccount.getCustomer());
+            evictAfterCommit(mobileNumber);
+            return true;
+        }));
+    }
+
+    /**
+     * Evicts the cached lookups once the transaction has committed. Evicted any earlier, a
+     * concurrent fetch could cache the rows as they were before it for the life of the entry.
+     */
+    private void evictAfterCommit(String... mobileNumbers) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (String mobileNumber : mobileNumbers) {
+                    customerLookupService.evict(mobileNumber);
+                }
+            }
+        });
+    }
 
-        Long accountNumber = accountsRepository.findByCustomerId(customerId)
-                .map(Accounts::getAccountNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "customerId", customerId.toString()));
+    /**
+     * Customer ids are unique across shards, so one cursor pages through all of them: every shard
+     * reads its own next page, and the lowest ids of those make the page.
+     */
+    @Override
+    public CustomerPageDto fetchCustomers(String cursor, int size, LocalDate createdFrom, LocalDate createdTo) {
+        long afterCustomerId = cursor == null ? 0L : decodeCursor(cursor);
+        LocalDateTime from = createdFrom == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : createdFrom.atStartOfDay();
+        LocalDateTime before = createdTo == null ? LocalDateTime.of(9999, 1, 1, 0, 0) : createdTo.plusDays(1).atStartOfDay();
+
+        // each shard's next ids in order, merged: one more than asked for tells whether another
+        // page exists without a count query, however many of the customers have an account
+        Map<Long, String> shardOfId = new TreeMap<>();
+        shardRouter.onEveryShard(() -> readOnlyTransaction.execute(status -> customerRepository.findCustomerIdsPage(
+                        afterCustomerId, from, before, Limit.of(size + 1))))
+                .forEach((shard, customerIds) -> customerIds.forEach(customerId -> shardOfId.put(customerId, shard)));
+        List<Long> customerIds = shardOfId.keySet().stream().limit(size + 1).toList();
+        boolean hasNext = customerIds.size() > size;
+        List<Long> pageIds = hasNext ? customerIds.subList(0, size) : customerIds;
+
+        // the rows are read only from the shards that have customers on the page
+        Map<String, Supplier<List<CustomerAccountView>>> reads = new LinkedHashMap<>();
+        pageIds.stream()
+                .collect(Collectors.groupingBy(shardOfId::get, LinkedHashMap::new, Collectors.toList()))
+                .forEach((shard, shardIds) -> reads.put(shard, () -> readOnlyTransaction.execute(status ->
+                        customerRepository.findCustomerAccountsByCustomerIdIn(shardIds))));
+        List<CustomerDto> customers = shardRouter.onShards(reads).values().stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(CustomerAccountView::getCustomerId))
+                .map(row -> CustomerMapper.mapToCustomerDto(row, new CustomerDto()))
+                .toList();
+        String nextCursor = hasNext ? encodeCursor(pageIds.get(pageIds.size() - 1)) : null;
+        return new CustomerPageDto(customers, nextCursor);
+    }
+
+    private static String encodeCursor(long customerId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("c:" + customerId).getBytes(StandardCharsets.UTF_8));
+    }
 
-        accountsRepository.deleteById(accountNumber);
-        customerRepository.deleteById(customerId);
-        return true;
+    private static long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("c:")) {
+                throw new InvalidCursorException(cursor);
+            }
+            return Long.parseLong(decoded.substring(2));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * With sharding the shards are read one after another, each through its own cursor and
+     * transaction, so the records are in customer id order within each shard only.
+     */
+    @Override
+    public long exportAccounts(OutputStream outputStream) throws IOException {
+        // the response is flushed by the generator's buffer, not after every record
+        ObjectWriter writer = objectMapper.writerFor(CustomerDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (String shard : shardRouter.shards()) {
+                count += shardRouter.onShard(shard, () -> readOnlyTransaction.execute(status ->
+                        writeAll(writer, generator)));
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return count;
+    }
+
+    private long writeAll(ObjectWriter writer, JsonGenerator generator) {
+        long count = 0;
+        try (Stream<CustomerAccountView> rows = customerRepository.streamAllCustomerAccounts()) {
+            Iterator<CustomerAccountView> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, CustomerMapper.mapToCustomerDto(iterator.next(), new CustomerDto()));
+                generator.writeRaw('\n');
+                count++;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return count;
     }
 }
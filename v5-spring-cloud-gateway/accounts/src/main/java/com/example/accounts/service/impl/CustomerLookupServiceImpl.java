@@ -0,0 +1,39 @@
+package com.example.accounts.service.impl;
+
+import com.example.accounts.constants.AccountsConstants;
+import com.example.accounts.dto.CustomerAccountView;
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.exception.ResourceNotFoundException;
+import com.example.accounts.mapper.CustomerMapper;
+import com.example.accounts.repository.CustomerRepository;
+import com.example.accounts.service.CustomerLookupService;
+import com.example.accounts.sharding.ShardRouter;
+import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@AllArgsConstructor
+public class CustomerLookupServiceImpl implements CustomerLookupService {
+
+    private final CustomerRepository customerRepository;
+    private final ShardRouter shardRouter;
+
+    @Override
+    @Cacheable(cacheNames = AccountsConstants.CUSTOMER_ACCOUNTS_CACHE, key = "#mobileNumber")
+    // not read-only: the result is cached, so it must not come from a lagging replica
+    @Transactional
+    public CustomerDto fetchCustomerAccount(String mobileNumber) {
+        CustomerAccountView customerAccount = shardRouter.onShardOf(mobileNumber,
+                        () -> customerRepository.findCustomerAccountByMobileNumber(mobileNumber))
+                .orElseThrow(() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
+        return CustomerMapper.mapToCustomerDto(customerAccount, new CustomerDto());
+    }
+
+    @Override
+    @CacheEvict(cacheNames = AccountsConstants.CUSTOMER_ACCOUNTS_CACHE, key = "#mobileNumber")
+    public void evict(String mobileNumber) {
+    }
+}
@@ -1,51 +1,237 @@
 package com.example.accounts.service.impl;
 
-import com.example.accounts.dto.AccountsDto;
 import com.example.accounts.dto.CardsDto;
+import com.example.accounts.dto.CustomerAccountView;
 import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDetailsSection;
+import com.example.accounts.dto.CustomerDto;
 import com.example.accounts.dto.LoansDto;
-import com.example.accounts.entity.Accounts;
-import com.example.accounts.entity.Customer;
-import com.example.accounts.exception.ResourceNotFoundException;
-import com.example.accounts.mapper.AccountsMapper;
+import com.example.accounts.exception.DownstreamRejectedException;
+import com.example.accounts.exception.DownstreamTimeoutException;
 import com.example.accounts.mapper.CustomerMapper;
-import com.example.accounts.repository.AccountsRepository;
 import com.example.accounts.repository.CustomerRepository;
+import com.example.accounts.service.CustomerLookupService;
 import com.example.accounts.service.CustomersService;
+import com.example.accounts.service.aggregation.FanOutExecutor;
+import com.example.accounts.service.aggregation.SingleFlight;
 import com.example.accounts.service.client.CardsFeignClient;
+import com.example.accounts.service.client.LastKnownDetailsCache;
 import com.example.accounts.service.client.LoansFeignClient;
+import com.example.accounts.sharding.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 @Service
 @AllArgsConstructor
 public class CustomersServiceImpl implements CustomersService {
 
-    private AccountsRepository accountsRepository;
+    private static final Logger logger = LoggerFactory.getLogger(CustomersServiceImpl.class);
+
     private CustomerRepository customerRepository;
     private CardsFeignClient cardsFeignClient;
     private LoansFeignClient loansFeignClient;
+    private FanOutExecutor fanOutExecutor;
+    private CustomerLookupService customerLookupService;
+    private MeterRegistry meterRegistry;
+    private LastKnownDetailsCache lastKnownDetailsCache;
+    private ShardRouter shardRouter;
+    private final SingleFlight<FlightKey, CustomerDetailsDto> customerDetailsFlights = new SingleFlight<>();
 
+    /**
+     * Concurrent requests for the same mobile number and sections share one lookup and one set
+     * of downstream calls, made with the correlation id of the request that started them; the
+     * others log their own id as they join, so their traces can be tied to those calls. Every
+     * request gets its own copy of the shared result.
+     */
     @Override
-    public CustomerDetailsDto fetchCustomerDetails(String mobileNumber, String correlationId) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
-        );
+    public CustomerDetailsDto fetchCustomerDetails(String mobileNumber, String correlationId,
+                                                   Set<CustomerDetailsSection> sections) {
+        CustomerDetailsDto shared = customerDetailsFlights.execute(new FlightKey(mobileNumber, sections),
+                () -> aggregateCustomerDetails(mobileNumber, correlationId, sections),
+                () -> {
+                    meterRegistry.counter("customer.details.coalesced").increment();
+                    logger.debug("Request {} joined the customer details lookup in flight for {} {}",
+                            correlationId, mobileNumber, sections);
+                });
+        return CustomerMapper.mapToCustomerDetailsDto(shared, new CustomerDetailsDto());
+    }
 
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-                () -> new ResourceNotFoundException("Account", "customerId", customer.getCustomerId().toString())
-        );
+    private CustomerDetailsDto aggregateCustomerDetails(String mobileNumber, String correlationId,
+                                                        Set<CustomerDetailsSection> sections) {
+        // the downstream calls only need the mobile number, so they start before the local lookup
+        FanOutExecutor.Hop<ResponseEntity<LoansDto>> loansHop = sections.contains(CustomerDetailsSection.LOANS)
+                ? fanOutExecutor.submitHedged("loans", () -> lastKnownDetailsCache.rememberLoans(
+                        loansFeignClient.fetchLoanDetails(correlationId, mobileNumber)))
+                : null;
+        FanOutExecutor.Hop<ResponseEntity<CardsDto>> cardsHop = sections.contains(CustomerDetailsSection.CARDS)
+                ? fanOutExecutor.submitHedged("cards", () -> lastKnownDetailsCache.rememberCards(
+                        cardsFeignClient.fetchCardDetails(correlationId, mobileNumber)))
+                : null;
+        // the customer is always looked up: it decides whether the request is a 404
+        FanOutExecutor.Hop<CustomerDetailsDto> accountsHop = fanOutExecutor.runInline("accounts-db",
+                () -> fetchLocalDetails(mobileNumber));
 
-        CustomerDetailsDto customerDetailsDto = CustomerMapper.mapToCustomerDetailsDto(customer, new CustomerDetailsDto());
-        customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+        CustomerDetailsDto customerDetailsDto = fanOutExecutor.await(accountsHop);
+        if (!sections.contains(CustomerDetailsSection.ACCOUNT)) {
+            customerDetailsDto.setAccountsDto(null);
+        }
+        if (loansHop != null) {
+            customerDetailsDto.setLoansDto(awaitSection(loansHop, "loans", CustomerDetailsSection.LOANS,
+                    customerDetailsDto, () -> lastKnownDetailsCache.lastKnownLoans(mobileNumber)));
+        }
+        if (cardsHop != null) {
+            customerDetailsDto.setCardsDto(awaitSection(cardsHop, "cards", CustomerDetailsSection.CARDS,
+                    customerDetailsDto, () -> lastKnownDetailsCache.lastKnownCards(mobileNumber)));
+        }
+        fanOutExecutor.recordCriticalPath(accountsHop, loansHop, cardsHop);
 
-        ResponseEntity<LoansDto> loansDtoResponseEntity = loansFeignClient.fetchLoanDetails(correlationId, mobileNumber);
-        ResponseEntity<CardsDto> cardsDtoResponseEntity = cardsFeignClient.fetchCardDetails(correlationId, mobileNumber);
+        return customerDetailsDto;
+    }
 
-        customerDetailsDto.setLoansDto(loansDtoResponseEntity.getBody());
-        customerDetailsDto.setCardsDto(cardsDtoResponseEntity.getBody());
+    @Override
+    public List<CustomerDetailsDto> fetchCustomerDetails(List<String> mobileNumbers, String correlationId,
+                                                         Set<CustomerDetailsSection> sections) {
+        List<String> distinctMobileNumbers = mobileNumbers.stream().distinct().toList();
+        FanOutExecutor.Hop<ResponseEntity<List<LoansDto>>> loansHop = sections.contains(CustomerDetailsSection.LOANS)
+                ? fanOutExecutor.submit("loans-bulk", () -> lastKnownDetailsCache.rememberAllLoans(
+                        loansFeignClient.fetchLoanDetailsBulk(correlationId, distinctMobileNumbers)))
+                : null;
+        FanOutExecutor.Hop<ResponseEntity<List<CardsDto>>> cardsHop = sections.contains(CustomerDetailsSection.CARDS)
+                ? fanOutExecutor.submit("cards-bulk", () -> lastKnownDetailsCache.rememberAllCards(
+                        cardsFeignClient.fetchCardDetailsBulk(correlationId, distinctMobileNumbers)))
+                : null;
+        FanOutExecutor.Hop<Map<String, CustomerDetailsDto>> accountsHop = fanOutExecutor.runInline("accounts-db",
+                () -> fetchLocalDetails(distinctMobileNumbers));
 
-        return customerDetailsDto;
+        Map<String, CustomerDetailsDto> customerDetailsByMobile = fanOutExecutor.await(accountsHop);
+        BulkSection<LoansDto> loans = loansHop == null ? BulkSection.skipped()
+                : awaitBulkSection(loansHop, "loans", LoansDto::getMobileNumber,
+                        () -> lastKnownDetailsCache.lastKnownLoans(distinctMobileNumbers));
+        BulkSection<CardsDto> cards = cardsHop == null ? BulkSection.skipped()
+                : awaitBulkSection(cardsHop, "cards", CardsDto::getMobileNumber,
+                        () -> lastKnownDetailsCache.lastKnownCards(distinctMobileNumbers));
+        fanOutExecutor.recordCriticalPath(accountsHop, loansHop, cardsHop);
+
+        boolean includeAccount = sections.contains(CustomerDetailsSection.ACCOUNT);
+        List<CustomerDetailsDto> customerDetailsDtos = new ArrayList<>(customerDetailsByMobile.size());
+        for (String mobileNumber : distinctMobileNumbers) {
+            CustomerDetailsDto customerDetailsDto = customerDetailsByMobile.get(mobileNumber);
+            if (customerDetailsDto != null) {
+                if (!includeAccount) {
+                    customerDetailsDto.setAccountsDto(null);
+                }
+                customerDetailsDto.setLoansDto(loans.byMobileNumber().get(mobileNumber));
+                customerDetailsDto.setCardsDto(cards.byMobileNumber().get(mobileNumber));
+                if (loans.stale()) {
+                    markStale(customerDetailsDto, CustomerDetailsSection.LOANS);
+                }
+                if (cards.stale()) {
+                    markStale(customerDetailsDto, CustomerDetailsSection.CARDS);
+                }
+                customerDetailsDtos.add(customerDetailsDto);
+            }
+        }
+        return customerDetailsDtos;
+    }
+
+    /**
+     * Waits for a downstream section. When the Feign fallback answered, or the call missed its
+     * deadline or could not be made for a saturated pool, the last known copy is used and the
+     * section is marked stale.
+     */
+    private <T> T awaitSection(FanOutExecutor.Hop<ResponseEntity<T>> hop, String dependency,
+                               CustomerDetailsSection section, CustomerDetailsDto customerDetailsDto,
+                               Supplier<ResponseEntity<T>> lastKnown) {
+        ResponseEntity<T> response;
+        try {
+            response = fanOutExecutor.await(hop);
+        } catch (DownstreamTimeoutException ex) {
+            recordFallback(dependency, "timeout");
+            response = lastKnown.get();
+        } catch (DownstreamRejectedException ex) {
+            recordFallback(dependency, "saturated");
+            response = lastKnown.get();
+        }
+        if (LastKnownDetailsCache.isStale(response)) {
+            markStale(customerDetailsDto, section);
+        }
+        return response.getBody();
+    }
+
+    private <T> BulkSection<T> awaitBulkSection(FanOutExecutor.Hop<ResponseEntity<List<T>>> hop, String dependency,
+                                                Function<T, String> mobileNumber,
+                                                Supplier<ResponseEntity<List<T>>> lastKnown) {
+        ResponseEntity<List<T>> response;
+        try {
+            response = fanOutExecutor.await(hop);
+        } catch (DownstreamTimeoutException ex) {
+            recordFallback(dependency, "timeout");
+            response = lastKnown.get();
+        } catch (DownstreamRejectedException ex) {
+            recordFallback(dependency, "saturated");
+            response = lastKnown.get();
+        }
+        return new BulkSection<>(indexByMobileNumber(response.getBody(), mobileNumber),
+                LastKnownDetailsCache.isStale(response));
+    }
+
+    private void recordFallback(String dependency, String reason) {
+        meterRegistry.counter("customer.details.fallback", "dependency", dependency, "reason", reason)
+                .increment();
+    }
+
+    private static void markStale(CustomerDetailsDto customerDetailsDto, CustomerDetailsSection section) {
+        if (customerDetailsDto.getStaleSections() == null) {
+            customerDetailsDto.setStaleSections(EnumSet.noneOf(CustomerDetailsSection.class));
+        }
+        customerDetailsDto.getStaleSections().add(section);
+    }
+
+    private Map<String, CustomerDetailsDto> fetchLocalDetails(List<String> mobileNumbers) {
+        Map<String, CustomerDetailsDto> customerDetailsByMobile = new HashMap<>();
+        List<CustomerAccountView> customerAccounts =
+                shardRouter.onShardsOf(mobileNumbers, customerRepository::findCustomerAccountsByMobileNumberIn);
+        for (CustomerAccountView customerAccount : customerAccounts) {
+            CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customerAccount, new CustomerDto());
+            customerDetailsByMobile.put(customerAccount.getMobileNumber(),
+                    CustomerMapper.mapToCustomerDetailsDto(customerDto, new CustomerDetailsDto()));
+        }
+        return customerDetailsByMobile;
+    }
+
+    private static <T> Map<String, T> indexByMobileNumber(List<T> dtos, Function<T, String> mobileNumber) {
+        if (dtos == null) {
+            return Map.of();
+        }
+        return dtos.stream().collect(Collectors.toMap(mobileNumber, Function.identity(), (first, second) -> first));
+    }
+
+    private CustomerDetailsDto fetchLocalDetails(String mobileNumber) {
+        CustomerDto customerDto = customerLookupService.fetchCustomerAccount(mobileNumber);
+        return CustomerMapper.mapToCustomerDetailsDto(customerDto, new CustomerDetailsDto());
+    }
+
+    private record FlightKey(String mobileNumber, Set<CustomerDetailsSection> sections) {
+    }
+
+    private record BulkSection<T>(Map<String, T> byMobileNumber, boolean stale) {
+
+        static <T> BulkSection<T> skipped() {
+            return new BulkSection<>(Map.of(), false);
+        }
     }
 }
@@ -0,0 +1,309 @@
+package com.example.accounts.service.impl;
+
+import com.example.accounts.config.OnboardingProperties;
+import com.example.accounts.constants.AccountsConstants;
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.OnboardingReportDto;
+import com.example.accounts.dto.OnboardingResultDto;
+import com.example.accounts.dto.OnboardingStatus;
+import com.example.accounts.entity.Accounts;
+import com.example.accounts.entity.Customer;
+import com.example.accounts.mapper.CustomerMapper;
+import com.example.accounts.repository.AccountsRepository;
+import com.example.accounts.repository.CustomerRepository;
+import com.example.accounts.service.OnboardingService;
+import com.example.accounts.service.identifier.AccountNumberAllocator;
+import com.example.accounts.sharding.ShardRouter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Reads the request as a stream of chunks. Each chunk is validated and inserted on a pool of
+ * {@code accounts.onboarding.parallelism} threads, in a transaction of its own, while the next
+ * chunks are read; a request keeps at most that many chunks waiting, so a fast client cannot
+ * make it buffer the whole body. Results are reported in request order.
+ */
+@Service
+public class OnboardingServiceImpl implements OnboardingService, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnboardingServiceImpl.class);
+
+    private final CustomerRepository customerRepository;
+    private final AccountsRepository accountsRepository;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final OnboardingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final ThreadPoolTaskExecutor executor;
+
+    public OnboardingServiceImpl(CustomerRepository customerRepository, AccountsRepository accountsRepository,
+                                 AccountNumberAllocator accountNumberAllocator, Validator validator,
+                                 PlatformTransactionManager transactionManager, OnboardingProperties properties,
+                                 EntityManager entityManager, MeterRegistry meterRegistry,
+                                 ShardRouter shardRouter, ObjectMapper objectMapper) {
+        this.customerRepository = customerRepository;
+        this.accountsRepository = accountsRepository;
+        this.accountNumberAllocator = accountNumberAllocator;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.shardRouter = shardRouter;
+        this.jsonReader = objectMapper.readerFor(CustomerDto.class);
+        CsvMapper csvMapper = CsvMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .build();
+        this.csvReader = csvMapper.readerFor(CustomerDto.class).with(CsvSchema.emptySchema().withHeader());
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getParallelism());
+        executor.setMaxPoolSize(properties.getParallelism());
+        executor.setThreadNamePrefix("onboarding-");
+        executor.initialize();
+    }
+
+    @Override
+    public OnboardingReportDto onboardCustomersFromJson(InputStream inputStream) {
+        return onboard(jsonReader, inputStream);
+    }
+
+    @Override
+    public OnboardingReportDto onboardCustomersFromCsv(InputStream inputStream) {
+        return onboard(csvReader, inputStream);
+    }
+
+    private OnboardingReportDto onboard(ObjectReader reader, InputStream inputStream) {
+        OnboardingReportDto report = new OnboardingReportDto();
+        int chunkSize = properties.getChunkSize();
+        Deque<CompletableFuture<OnboardingResultDto[]>> inFlight = new ArrayDeque<>();
+        int received = 0;
+        List<CustomerDto> chunk = new ArrayList<>(chunkSize);
+        // a record that does not bind to a customer is skipped past and reported as invalid, but a
+        // syntax error leaves the parser in an unknown state, so reading stops there; everything
+        // read before it is still onboarded
+        try (MappingIterator<CustomerDto> records = reader.readValues(inputStream)) {
+            while (records.hasNextValue()) {
+                try {
+                    chunk.add(records.nextValue());
+                } catch (JsonMappingException ex) {
+                    chunk.add(null);
+                }
+                if (chunk.size() == chunkSize) {
+                    inFlight.add(submitChunk(chunk, received));
+                    received += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                    // one more than the pool runs, so the next chunk is always ready to go
+                    while (inFlight.size() > properties.getParallelism()) {
+                        addToReport(inFlight.poll(), report);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeJsonMappingException ex) {
+            logger.debug("Onboarding request unreadable after {} records", received + chunk.size(), ex);
+            report.setError(String.format("Record %d could not be read: %s",
+                    received + chunk.size(), ex.getMessage()));
+        }
+        if (!chunk.isEmpty()) {
+            inFlight.add(submitChunk(chunk, received));
+        }
+        while (!inFlight.isEmpty()) {
+            addToReport(inFlight.poll(), report);
+        }
+        return report;
+    }
+
+    private CompletableFuture<OnboardingResultDto[]> submitChunk(List<CustomerDto> chunk, int firstIndex) {
+        return executor.submitCompletable(() -> processChunk(chunk, firstIndex));
+    }
+
+    private void addToReport(CompletableFuture<OnboardingResultDto[]> chunk, OnboardingReportDto report) {
+        OnboardingResultDto[] results;
+        try {
+            results = chunk.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        Map<OnboardingStatus, Integer> counts = new EnumMap<>(OnboardingStatus.class);
+        for (OnboardingResultDto result : results) {
+            if (result.getStatus() == OnboardingStatus.CREATED) {
+                report.setCreated(report.getCreated() + 1);
+            } else {
+                report.setRejected(report.getRejected() + 1);
+            }
+            report.getResults().add(result);
+            counts.merge(result.getStatus(), 1, Integer::sum);
+        }
+        counts.forEach((status, count) -> meterRegistry.counter("accounts.onboarding.records",
+                "status", status.name().toLowerCase()).increment(count));
+        report.setReceived(report.getReceived() + results.length);
+    }
+
+    /**
+     * Validates a chunk, drops numbers repeated within it or already registered, and inserts
+     * the rest in one transaction, one per shard with sharding.
+     */
+    private OnboardingResultDto[] processChunk(List<CustomerDto> chunk, int firstIndex) {
+        OnboardingResultDto[] results = new OnboardingResultDto[chunk.size()];
+        // in request order, so customer ids follow the order of the request within a chunk
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            CustomerDto customerDto = chunk.get(i);
+            if (customerDto == null) {
+                results[i] = new OnboardingResultDto(firstIndex + i, null, OnboardingStatus.INVALID, null,
+                        Map.of("record", "Record is not a customer"));
+                continue;
+            }
+            Set<ConstraintViolation<CustomerDto>> violations = validator.validate(customerDto);
+            if (!violations.isEmpty()) {
+                results[i] = invalid(firstIndex + i, customerDto, violations);
+            } else if (candidates.putIfAbsent(customerDto.getMobileNumber(), i) != null) {
+                results[i] = duplicate(firstIndex + i, customerDto);
+            }
+        }
+
+        shardRouter.groupByShard(candidates.keySet(), Function.identity()).forEach((shard, mobileNumbers) -> {
+            Map<String, Integer> shardCandidates = new LinkedHashMap<>();
+            mobileNumbers.forEach(mobileNumber -> shardCandidates.put(mobileNumber, candidates.get(mobileNumber)));
+            shardRouter.onShard(shard, () -> {
+                insertChunk(chunk, shardCandidates, firstIndex, results);
+                return null;
+            });
+        });
+        return results;
+    }
+
+    private void insertChunk(List<CustomerDto> chunk, Map<String, Integer> candidates, int firstIndex,
+                             OnboardingResultDto[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    insert(chunk, candidates, firstIndex, results));
+        } catch (DataIntegrityViolationException | ConcurrencyFailureException ex) {
+            // a number was registered between the check and the insert, by another request or by
+            // a chunk of this one, or two chunks each took a number the other wants and one was
+            // rolled back; settle each record on its own
+            logger.debug("Onboarding chunk at record {} hit a concurrent insert, retrying one by one",
+                    firstIndex, ex);
+            insertOneByOne(chunk, candidates, firstIndex, results);
+        }
+    }
+
+    private void insertOneByOne(List<CustomerDto> chunk, Map<String, Integer> candidates, int firstIndex,
+                                OnboardingResultDto[] results) {
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            int i = candidate.getValue();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        insert(chunk, Map.of(candidate.getKey(), i), firstIndex, results));
+            } catch (DataIntegrityViolationException ex) {
+                results[i] = duplicate(firstIndex + i, chunk.get(i));
+            }
+        }
+    }
+
+    /**
+     * Inserts the customers, then their accounts. Both entities use pooled identifiers, so
+     * Hibernate sends each table's rows as JDBC batches of {@code hibernate.jdbc.batch_size}.
+     */
+    private void insert(List<CustomerDto> chunk, Map<String, Integer> candidates, int firstIndex,
+                        OnboardingResultDto[] results) {
+        // a bulk load would only push recently used entries out of the second-level cache
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+        Set<String> existing = customerRepository.findExistingMobileNumbers(candidates.keySet());
+        List<Integer> positions = new ArrayList<>(candidates.size());
+        List<Customer> customers = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            int i = candidate.getValue();
+            if (existing.contains(candidate.getKey())) {
+                results[i] = duplicate(firstIndex + i, chunk.get(i));
+            } else {
+                positions.add(i);
+                customers.add(CustomerMapper.mapToCustomer(chunk.get(i), new Customer()));
+            }
+        }
+        customerRepository.saveAllAndFlush(customers);
+
+        List<Accounts> accounts = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            Accounts newAccounts = new Accounts();
+            newAccounts.setCustomerId(customer.getCustomerId());
+            newAccounts.setAccountNumber(accountNumberAllocator.nextAccountNumber());
+            newAccounts.setAccountType(AccountsConstants.SAVINGS);
+            newAccounts.setBranchAddress(AccountsConstants.ADDRESS);
+            accounts.add(newAccounts);
+        }
+        accountsRepository.saveAllAndFlush(accounts);
+
+        for (int k = 0; k < positions.size(); k++) {
+            int i = positions.get(k);
+            results[i] = new OnboardingResultDto(firstIndex + i, chunk.get(i).getMobileNumber(),
+                    OnboardingStatus.CREATED, String.valueOf(accounts.get(k).getAccountNumber()), null);
+        }
+    }
+
+    private static OnboardingResultDto invalid(int index, CustomerDto customerDto,
+                                               Set<ConstraintViolation<CustomerDto>> violations) {
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<CustomerDto> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return new OnboardingResultDto(index, customerDto.getMobileNumber(), OnboardingStatus.INVALID, null, errors);
+    }
+
+    private static OnboardingResultDto duplicate(int index, CustomerDto customerDto) {
+        return new OnboardingResultDto(index, customerDto.getMobileNumber(), OnboardingStatus.DUPLICATE, null,
+                Map.of("mobileNumber", String.format("Customer with mobile number %s already exists",
+                        customerDto.getMobileNumber())));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.accounts.service.impl;
+
+import com.example.accounts.config.CustomerDetailsProperties;
+import com.example.accounts.dto.CardsDto;
+import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDetailsSection;
+import com.example.accounts.dto.LoansDto;
+import com.example.accounts.mapper.CustomerMapper;
+import com.example.accounts.service.CustomerLookupService;
+import com.example.accounts.service.ReactiveCustomersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class ReactiveCustomersServiceImpl implements ReactiveCustomersService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCustomersServiceImpl.class);
+
+    private final WebClient webClient;
+    private final CustomerLookupService customerLookupService;
+    private final CustomerDetailsProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ReactiveCustomersServiceImpl(WebClient.Builder loadBalancedWebClientBuilder,
+                                        CustomerLookupService customerLookupService,
+                                        CustomerDetailsProperties properties,
+                                        MeterRegistry meterRegistry) {
+        this.webClient = loadBalancedWebClientBuilder.build();
+        this.customerLookupService = customerLookupService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<CustomerDetailsDto> fetchCustomerDetails(String mobileNumber, String correlationId,
+                                                         Set<CustomerDetailsSection> sections) {
+        // JPA is blocking, so the local lookup must stay off the event loop
+        Mono<CustomerDetailsDto> local = Mono.fromCallable(() -> CustomerMapper.mapToCustomerDetailsDto(
+                        customerLookupService.fetchCustomerAccount(mobileNumber), new CustomerDetailsDto()))
+                .subscribeOn(Schedulers.boundedElastic());
+        Mono<Optional<LoansDto>> loans = sections.contains(CustomerDetailsSection.LOANS)
+                ? fetchBranch("loans", LoansDto.class, mobileNumber, correlationId)
+                : Mono.just(Optional.empty());
+        Mono<Optional<CardsDto>> cards = sections.contains(CustomerDetailsSection.CARDS)
+                ? fetchBranch("cards", CardsDto.class, mobileNumber, correlationId)
+                : Mono.just(Optional.empty());
+
+        return Mono.zip(local, loans, cards).map(results -> {
+            CustomerDetailsDto customerDetailsDto = results.getT1();
+            if (!sections.contains(CustomerDetailsSection.ACCOUNT)) {
+                customerDetailsDto.setAccountsDto(null);
+            }
+            customerDetailsDto.setLoansDto(results.getT2().orElse(null));
+            customerDetailsDto.setCardsDto(results.getT3().orElse(null));
+            return customerDetailsDto;
+        });
+    }
+
+    private <T> Mono<Optional<T>> fetchBranch(String serviceId, Class<T> type, String mobileNumber,
+                                              String correlationId) {
+        return webClient.get()
+                .uri("http://{serviceId}/api/fetch?mobileNumber={mobileNumber}", serviceId, mobileNumber)
+                .header("mybank-correlation-id", correlationId)
+                .retrieve()
+                .bodyToMono(type)
+                .timeout(properties.timeoutFor(serviceId))
+                .map(Optional::of)
+                // zip completes empty if any branch is empty, so a missing section is an empty Optional
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(ex -> {
+                    String reason = fallbackReason(ex);
+                    meterRegistry.counter("customer.details.fallback", "dependency", serviceId, "reason", reason)
+                            .increment();
+                    logger.debug("{} branch fell back ({}): {}", serviceId, reason, ex.getMessage());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private static String fallbackReason(Throwable ex) {
+        if (ex instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (ex instanceof WebClientResponseException.NotFound) {
+            return "not-found";
+        }
+        return "error";
+    }
+}
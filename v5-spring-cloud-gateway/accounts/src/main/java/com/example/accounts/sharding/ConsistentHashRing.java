@@ -0,0 +1,72 @@
+package com.example.accounts.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps keys to shards by consistent hashing.
+ * <p>
+ * Each shard is placed on the ring at a number of points, and a key belongs to the shard at the
+ * first point at or after its own hash. Adding a shard therefore only takes keys from the points
+ * it lands next to, about one key in {@code n + 1}, and every other key stays where it is. The
+ * hash is computed from the key's bytes alone, so every instance agrees on where a key lives.
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> shards;
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    public ConsistentHashRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one shard");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("A shard needs at least one point on the ring");
+        }
+        this.shards = List.copyOf(shards);
+        for (String shard : this.shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // on the rare collision the first shard keeps the point, the same on every instance
+                points.putIfAbsent(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    /**
+     * @return the shard the key belongs to
+     */
+    public String shardOf(String key) {
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    /**
+     * @return the shards on the ring, in the order they were given
+     */
+    public List<String> shards() {
+        return shards;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the SplitMix64 mixer: FNV alone leaves
+     * keys that differ only in their last digits close together on the ring.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return shards.toString();
+    }
+}
@@ -1,21 +1,48 @@
+CREATE SEQUENCE IF NOT EXISTS `customer_seq` START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS `customer` (
-      `customer_id` int AUTO_INCREMENT  PRIMARY KEY,
+      `customer_id` bigint PRIMARY KEY,
       `name` varchar(100) NOT NULL,
     `email` varchar(100) NOT NULL,
     `mobile_number` varchar(20) NOT NULL,
     `created_at` date NOT NULL,
     `created_by` varchar(20) NOT NULL,
     `updated_at` date DEFAULT NULL,
-    `updated_by` varchar(20) DEFAULT NULL
+    `updated_by` varchar(20) DEFAULT NULL,
+    `version` bigint NOT NULL DEFAULT 0,
+    CONSTRAINT `uk_customer_mobile_number` UNIQUE (`mobile_number`)
     );
 
 CREATE TABLE IF NOT EXISTS `accounts` (
-      `customer_id` int NOT NULL,
-      `account_number` int AUTO_INCREMENT  PRIMARY KEY,
+      `customer_id` bigint NOT NULL,
+      `account_number` bigint PRIMARY KEY,
       `account_type` varchar(100) NOT NULL,
     `branch_address` varchar(200) NOT NULL,
     `created_at` date NOT NULL,
     `created_by` varchar(20) NOT NULL,
     `updated_at` date DEFAULT NULL,
-    `updated_by` varchar(20) DEFAULT NULL
-    );
\ No newline at end of file
+    `updated_by` varchar(20) DEFAULT NULL,
+    `version` bigint NOT NULL DEFAULT 0
+    );
+
+CREATE INDEX IF NOT EXISTS `idx_accounts_customer_id` ON `accounts` (`customer_id`);
+
+CREATE TABLE IF NOT EXISTS `number_block` (
+    `name` varchar(50) PRIMARY KEY,
+    `next_hi` bigint NOT NULL
+    );
+
+INSERT INTO `number_block` (`name`, `next_hi`)
+SELECT 'account_number', 0 WHERE NOT EXISTS (SELECT 1 FROM `number_block` WHERE `name` = 'account_number');
+
+CREATE INDEX IF NOT EXISTS `idx_customer_id_created_at` ON `customer` (`customer_id`, `created_at`);
+
+-- tables created before rows were versioned, where ddl-auto may have added a nullable version
+ALTER TABLE `customer` ADD COLUMN IF NOT EXISTS `version` bigint NOT NULL DEFAULT 0;
+UPDATE `customer` SET `version` = 0 WHERE `version` IS NULL;
+ALTER TABLE `customer` ALTER COLUMN `version` SET DEFAULT 0;
+ALTER TABLE `customer` ALTER COLUMN `version` SET NOT NULL;
+ALTER TABLE `accounts` ADD COLUMN IF NOT EXISTS `version` bigint NOT NULL DEFAULT 0;
+UPDATE `accounts` SET `version` = 0 WHERE `version` IS NULL;
+ALTER TABLE `accounts` ALTER COLUMN `version` SET DEFAULT 0;
+ALTER TABLE `accounts` ALTER COLUMN `version` SET NOT NULL;
@@ -0,0 +1,66 @@
+package com.example.accounts.controller;
+
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.service.AccountsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AccountsControllerTest {
+
+    private static final String MOBILE_NUMBER = "0966666666";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountsService accountsService;
+
+    @AfterEach
+    void tearDown() {
+        accountsService.deleteAccount(MOBILE_NUMBER);
+    }
+
+    @Test
+    void fetchAnswersWithAWeakTagLikeCardsAndLoansAndChangesItOnUpdate() throws Exception {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName("Tagged Customer");
+        customerDto.setEmail("tagged@example.com");
+        customerDto.setMobileNumber(MOBILE_NUMBER);
+        accountsService.createAccount(customerDto);
+        String eTag = mockMvc.perform(fetch())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(eTag.startsWith("W/\""), eTag);
+
+        mockMvc.perform(fetch().header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        CustomerDto fetched = accountsService.fetchAccount(MOBILE_NUMBER);
+        fetched.setName("Renamed Customer");
+        accountsService.updateAccount(fetched);
+        String updatedETag = mockMvc.perform(fetch().header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, updatedETag);
+    }
+
+    private static MockHttpServletRequestBuilder fetch() {
+        return get("/api/fetch").param("mobileNumber", MOBILE_NUMBER);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.accounts.repository;
+
+import com.example.accounts.audit.AuditAwareImpl;
+import com.example.accounts.dto.CustomerAccountView;
+import com.example.accounts.entity.Accounts;
+import com.example.accounts.entity.Customer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Each repository read of customers with their accounts is a single statement, counted by
+ * Hibernate's statistics with the persistence context cleared, so nothing is answered from memory.
+ * The SELECTs of whole service calls are counted in {@code AccountsServiceImplTest}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(AuditAwareImpl.class)
+class CustomerRepositoryTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Long> customerIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Customer customer = new Customer();
+            customer.setName("Customer " + i);
+            customer.setEmail("customer" + i + "@example.com");
+            customer.setMobileNumber(mobileNumber(i));
+            entityManager.persist(customer);
+            Accounts accounts = new Accounts();
+            accounts.setCustomerId(customer.getCustomerId());
+            accounts.setAccountNumber(1000L + i);
+            accounts.setAccountType("Savings");
+            accounts.setBranchAddress("Main Street");
+            entityManager.persist(accounts);
+            customerIds.add(customer.getCustomerId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void fetchReadsTheCustomerAndAccountInOneStatement() {
+        CustomerAccountView view = customerRepository.findCustomerAccountByMobileNumber(mobileNumber(1)).orElseThrow();
+
+        assertEquals("Customer 1", view.getName());
+        assertEquals(1001L, view.getAccountNumber());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void bulkFetchReadsEveryCustomerAndAccountInOneStatement() {
+        List<CustomerAccountView> views = customerRepository.findCustomerAccountsByMobileNumberIn(
+                List.of(mobileNumber(0), mobileNumber(1), mobileNumber(2)));
+
+        assertEquals(3, views.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void aPageReadsItsIdsAndThenItsRowsInOneStatementEach() {
+        List<Long> pageIds = customerRepository.findCustomerIdsPage(0L, LocalDateTime.of(1970, 1, 1, 0, 0),
+                LocalDateTime.of(9999, 1, 1, 0, 0), Limit.of(2));
+        assertEquals(customerIds.subList(0, 2), pageIds);
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        List<CustomerAccountView> views = customerRepository.findCustomerAccountsByCustomerIdIn(pageIds);
+
+        assertEquals(List.of(1000L, 1001L), views.stream().map(CustomerAccountView::getAccountNumber).toList());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private static String mobileNumber(int i) {
+        return String.format("096666666%d", i);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.accounts.service.aggregation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedTaskExecutorTest {
+
+    private final BoundedTaskExecutor executor = new BoundedTaskExecutor("bounded-", 2);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void tasksBeyondTheLimitAreRejected() {
+        executor.submit(this::blockUntilReleased);
+        executor.submit(this::blockUntilReleased);
+
+        assertThrows(TaskRejectedException.class, () -> executor.submit(() -> { }));
+    }
+
+    @Test
+    void finishedTasksFreeTheirSlot() throws Exception {
+        Future<?> first = executor.submit(this::blockUntilReleased);
+        executor.submit(this::blockUntilReleased);
+        release.countDown();
+        first.get(1, TimeUnit.SECONDS);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (executor.availableSlots() < 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(2, executor.availableSlots());
+        executor.submit(() -> { }).get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void cancelledTasksFreeTheirSlot() throws Exception {
+        Future<?> blocked = executor.submit(this::blockUntilReleased);
+        executor.submit(this::blockUntilReleased);
+        blocked.cancel(true);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (executor.availableSlots() < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        executor.submit(() -> { }).get(1, TimeUnit.SECONDS);
+    }
+
+    private void blockUntilReleased() {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.accounts.service.aggregation;
+
+import com.example.accounts.config.CustomerDetailsProperties;
+import com.example.accounts.config.HedgingProperties;
+import com.example.accounts.exception.DownstreamRejectedException;
+import com.example.accounts.exception.DownstreamTimeoutException;
+import com.example.accounts.service.client.HedgeRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HedgingExecutor hedgingExecutor;
+    private FanOutExecutor fanOutExecutor;
+
+    @BeforeEach
+    void setUp() {
+        CustomerDetailsProperties properties = new CustomerDetailsProperties();
+        properties.setPoolSize(1);
+        properties.setQueueCapacity(0);
+        properties.setTimeouts(Map.of("cards", Duration.ofMillis(100)));
+        hedgingExecutor = new HedgingExecutor(new HedgingProperties(), new HedgeRouting(), meterRegistry,
+                new MockEnvironment());
+        fanOutExecutor = new FanOutExecutor(properties, meterRegistry, new MockEnvironment(), hedgingExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        fanOutExecutor.destroy();
+        hedgingExecutor.destroy();
+    }
+
+    @Test
+    void saturatedPoolFailsTheHopAtOnce() {
+        fanOutExecutor.submit("loans", this::blockUntilReleased);
+
+        long start = System.nanoTime();
+        FanOutExecutor.Hop<String> rejected = fanOutExecutor.submit("cards", () -> "cards");
+
+        assertThrows(DownstreamRejectedException.class, () -> fanOutExecutor.await(rejected));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100), "rejected without waiting");
+        assertEquals(1, meterRegistry.get("customer.details.dependency")
+                .tags("dependency", "cards", "outcome", "rejected").timer().count());
+    }
+
+    @Test
+    void missedDeadlineInterruptsTheCall() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        FanOutExecutor.Hop<String> hop = fanOutExecutor.submit("cards", () -> {
+            try {
+                Thread.sleep(10_000);
+                return "cards";
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        assertThrows(DownstreamTimeoutException.class, () -> fanOutExecutor.await(hop));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS), "the call was interrupted");
+    }
+
+    @Test
+    void everyHopIsTimed() {
+        FanOutExecutor.Hop<String> cards = fanOutExecutor.submit("cards", () -> "cards");
+        fanOutExecutor.await(cards);
+        FanOutExecutor.Hop<String> accounts = fanOutExecutor.runInline("accounts-db", () -> "accounts");
+
+        fanOutExecutor.recordCriticalPath(cards, accounts, null);
+
+        assertEquals(1, meterRegistry.get("customer.details.dependency").tag("dependency", "cards").timer().count());
+        assertEquals(1, meterRegistry.get("customer.details.dependency").tag("dependency", "accounts-db")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("customer.details.critical.path").timers().stream()
+                .mapToLong(timer -> timer.count()).sum());
+    }
+
+    private String blockUntilReleased() {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return "loans";
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.accounts.service.aggregation;
+
+import com.example.accounts.config.HedgingProperties;
+import com.example.accounts.service.client.HedgeRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HedgingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgingExecutor hedgingExecutor;
+
+    @AfterEach
+    void shutdown() {
+        hedgingExecutor.destroy();
+    }
+
+    @Test
+    void slowPrimaryIsOvertakenByHedge() throws Exception {
+        hedgingExecutor = hedgingExecutor(0.05, 10);
+        warmUp();
+
+        String result = hedgingExecutor.execute("cards", firstCallSlow(), HedgingExecutorTest::unhedged)
+                .get(1, TimeUnit.SECONDS);
+
+        assertEquals("hedge", result);
+        assertEquals(1.0, awaitCount("customer.details.hedge.sent", 1.0));
+        assertEquals(1.0, awaitCount("customer.details.hedge.wins", 1.0));
+    }
+
+    @Test
+    void exhaustedBudgetLeavesCallUnhedged() throws Exception {
+        hedgingExecutor = hedgingExecutor(0.0, 1);
+        warmUp();
+
+        assertEquals("hedge", hedgingExecutor.execute("cards", firstCallSlow(), HedgingExecutorTest::unhedged)
+                .get(1, TimeUnit.SECONDS));
+        String result = hedgingExecutor.execute("cards", firstCallSlow(), HedgingExecutorTest::unhedged)
+                .get(2, TimeUnit.SECONDS);
+
+        assertEquals("primary", result);
+        assertEquals(1.0, awaitCount("customer.details.hedge.sent", 1.0));
+        assertEquals(1.0, meterRegistry.get("customer.details.hedge.skipped").tag("reason", "budget")
+                .counter().count());
+    }
+
+    private HedgingExecutor hedgingExecutor(double budgetRatio, int budgetBurst) {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setMinSamples(20);
+        properties.setMinDelay(Duration.ofMillis(5));
+        properties.setBudgetRatio(budgetRatio);
+        properties.setBudgetBurst(budgetBurst);
+        properties.setPoolSize(4);
+        return new HedgingExecutor(properties, new HedgeRouting(), meterRegistry, new MockEnvironment());
+    }
+
+    private void warmUp() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            hedgingExecutor.execute("cards", () -> "fast", HedgingExecutorTest::unhedged).get(1, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * The primary takes far longer than any sample so far; the hedge answers at once.
+     */
+    private static Supplier<String> firstCallSlow() {
+        AtomicInteger calls = new AtomicInteger();
+        return () -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(1000);
+                return "primary";
+            }
+            return "hedge";
+        };
+    }
+
+    /**
+     * The counters are bumped by the attempt that completed the call, possibly just after the
+     * caller was released, so give them a moment to catch up.
+     */
+    private double awaitCount(String name, double expected) throws InterruptedException {
+        for (int i = 0; i < 100 && count(name) < expected; i++) {
+            Thread.sleep(10);
+        }
+        return count(name);
+    }
+
+    private double count(String name) {
+        return meterRegistry.find(name).tag("dependency", "cards").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private static <T> CompletableFuture<T> unhedged(Supplier<T> call) {
+        return CompletableFuture.completedFuture(call.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.accounts.service.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 200;
+
+    @Test
+    void stampedeForOneKeyMakesOneCall() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger downstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = stampede(() -> singleFlight.execute("4123456781", () -> {
+            downstreamCalls.incrementAndGet();
+            await(release);
+            return "details";
+        }), release);
+
+        for (Future<String> result : results) {
+            assertEquals("details", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, downstreamCalls.get());
+        // the flight is over, so the next caller computes again
+        singleFlight.execute("4123456781", () -> String.valueOf(downstreamCalls.incrementAndGet()));
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    @Test
+    void waitersReceiveTheLeadersException() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger downstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("cards unavailable");
+
+        List<Future<String>> results = stampede(() -> singleFlight.execute("4123456781", () -> {
+            downstreamCalls.incrementAndGet();
+            await(release);
+            throw failure;
+        }), release);
+
+        for (Future<String> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, ex.getCause());
+        }
+        assertEquals(1, downstreamCalls.get());
+    }
+
+    private static List<Future<String>> stampede(Callable<String> call, CountDownLatch release)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(pool.submit(() -> {
+                started.countDown();
+                return call.call();
+            }));
+        }
+        started.await();
+        // give every caller time to reach the in-flight computation before it completes
+        Thread.sleep(200);
+        release.countDown();
+        pool.shutdown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
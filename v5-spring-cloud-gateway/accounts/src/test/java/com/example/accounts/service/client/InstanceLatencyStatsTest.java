@@ -0,0 +1,99 @@
+package com.example.accounts.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InstanceLatencyStatsTest {
+
+    private static final ServiceInstance CARDS_1 = new DefaultServiceInstance("cards-1", "cards", "10.0.0.1", 9000, false);
+    private static final ServiceInstance CARDS_2 = new DefaultServiceInstance("cards-2", "cards", "10.0.0.2", 9000, false);
+    private static final ServiceInstance LOANS_1 = new DefaultServiceInstance("loans-1", "loans", "10.0.1.1", 8090, false);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InstanceLatencyStats stats = new InstanceLatencyStats(Duration.ofSeconds(10), Duration.ofSeconds(1),
+            meterRegistry);
+
+    @Test
+    void instancesDroppedFromTheListLoseTheirGauges() {
+        record(CARDS_1);
+        record(CARDS_2);
+        record(LOANS_1);
+
+        stats.retainOnly("cards", List.of(CARDS_1));
+
+        assertEquals(Set.of("cards 10.0.0.1:9000", "loans 10.0.1.1:8090"), reported("loadbalancer.instance.latency"));
+        assertEquals(Set.of("cards 10.0.0.1:9000", "loans 10.0.1.1:8090"), reported("loadbalancer.instance.in.flight"));
+    }
+
+    @Test
+    void serviceIdsAreComparedIgnoringCase() {
+        record(new DefaultServiceInstance("cards-1", "CARDS", "10.0.0.1", 9000, false));
+
+        stats.retainOnly("cards", List.of());
+
+        assertEquals(Set.of(), reported("loadbalancer.instance.latency"));
+    }
+
+    @Test
+    void anInstanceThatComesBackIsReportedAgain() {
+        record(CARDS_1);
+        stats.retainOnly("cards", List.of());
+
+        record(CARDS_1);
+
+        assertEquals(Set.of("cards 10.0.0.1:9000"), reported("loadbalancer.instance.latency"));
+        assertEquals(1.0, meterRegistry.get("loadbalancer.instance.in.flight").gauge().value());
+    }
+
+    @Test
+    void theLoadBalancerForgetsInstancesItNoLongerChoosesFrom() {
+        AtomicReference<List<ServiceInstance>> current = new AtomicReference<>(List.of(CARDS_1, CARDS_2));
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "cards";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.defer(() -> Flux.just(current.get()));
+            }
+        };
+        LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(
+                new StaticListableBeanFactory(Map.of("cardsSupplier", supplier))
+                        .getBeanProvider(ServiceInstanceListSupplier.class), "cards", stats);
+        record(CARDS_1);
+        record(CARDS_2);
+
+        current.set(List.of(CARDS_2));
+        assertEquals(CARDS_2, loadBalancer.choose(new DefaultRequest<>()).block().getServer());
+
+        assertEquals(Set.of("cards 10.0.0.2:9000"), reported("loadbalancer.instance.latency"));
+    }
+
+    private void record(ServiceInstance instance) {
+        stats.onStart(instance);
+        stats.cost(instance);
+    }
+
+    private Set<String> reported(String gauge) {
+        return meterRegistry.find(gauge).gauges().stream()
+                .map(g -> g.getId().getTag("service") + " " + g.getId().getTag("instance"))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.accounts.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulates a steady request stream against three cards instances, one of them ten times
+ * slower than the others, on a virtual clock.
+ */
+class LatencyAwareLoadBalancerTest {
+
+    private static final int REQUESTS = 5000;
+    private static final int WARM_UP = 500;
+    private static final long ARRIVAL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final ServiceInstance FAST_1 = new DefaultServiceInstance("cards-1", "cards", "10.0.0.1", 9000, false);
+    private static final ServiceInstance FAST_2 = new DefaultServiceInstance("cards-2", "cards", "10.0.0.2", 9000, false);
+    private static final ServiceInstance SLOW = new DefaultServiceInstance("cards-3", "cards", "10.0.0.3", 9000, false);
+    private static final Map<ServiceInstance, Long> LATENCIES = Map.of(
+            FAST_1, TimeUnit.MILLISECONDS.toNanos(10),
+            FAST_2, TimeUnit.MILLISECONDS.toNanos(10),
+            SLOW, TimeUnit.MILLISECONDS.toNanos(100));
+
+    @Test
+    void trafficShiftsAwayFromSlowInstance() {
+        AtomicLong clock = new AtomicLong();
+        InstanceLatencyStats stats = new InstanceLatencyStats(Duration.ofSeconds(10), Duration.ofSeconds(1),
+                new SimpleMeterRegistry(), clock::get);
+        double slowShare = simulate(new LatencyAwareLoadBalancer(suppliers(), "cards", stats), stats, clock);
+
+        assertTrue(slowShare < 0.05, "slow instance still got " + slowShare + " of the traffic");
+    }
+
+    @Test
+    void roundRobinKeepsFeedingSlowInstance() {
+        AtomicLong clock = new AtomicLong();
+        InstanceLatencyStats stats = new InstanceLatencyStats(Duration.ofSeconds(10), Duration.ofSeconds(1),
+                new SimpleMeterRegistry(), clock::get);
+        double slowShare = simulate(new RoundRobinLoadBalancer(suppliers(), "cards"), stats, clock);
+
+        assertTrue(Math.abs(slowShare - 1.0 / 3) < 0.01, "round-robin gave the slow instance " + slowShare);
+    }
+
+    private static double simulate(ReactorServiceInstanceLoadBalancer loadBalancer, InstanceLatencyStats stats,
+                                   AtomicLong clock) {
+        PriorityQueue<Completion> inFlight = new PriorityQueue<>();
+        Map<ServiceInstance, Integer> picks = new HashMap<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            long now = i * ARRIVAL_INTERVAL;
+            while (!inFlight.isEmpty() && inFlight.peek().at() <= now) {
+                Completion completion = inFlight.poll();
+                clock.set(completion.at());
+                stats.onComplete(completion.instance(), LATENCIES.get(completion.instance()), false);
+            }
+            clock.set(now);
+            ServiceInstance instance = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            stats.onStart(instance);
+            inFlight.add(new Completion(now + LATENCIES.get(instance), instance));
+            if (i >= WARM_UP) {
+                picks.merge(instance, 1, Integer::sum);
+            }
+        }
+        return picks.getOrDefault(SLOW, 0) / (double) (REQUESTS - WARM_UP);
+    }
+
+    private static ObjectProvider<ServiceInstanceListSupplier> suppliers() {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "cards";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(List.of(FAST_1, FAST_2, SLOW));
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("cardsSupplier", supplier));
+        return beanFactory.getBeanProvider(ServiceInstanceListSupplier.class);
+    }
+
+    private record Completion(long at, ServiceInstance instance) implements Comparable<Completion> {
+
+        @Override
+        public int compareTo(Completion other) {
+            return Long.compare(at, other.at);
+        }
+    }
+}
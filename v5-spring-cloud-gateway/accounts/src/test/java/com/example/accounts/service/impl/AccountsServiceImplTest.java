@@ -0,0 +1,140 @@
+package com.example.accounts.service.impl;
+
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.exception.CustomerAlreadyExistsException;
+import com.example.accounts.service.AccountsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AccountsServiceImplTest {
+
+    private static final int CREATES = 16;
+
+    @Autowired
+    private AccountsService accountsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void parallelCreatesOfOneMobileNumberLeaveOneCustomer() throws Exception {
+        String mobileNumber = "0933333333";
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(CREATES);
+        List<Future<?>> creates = new ArrayList<>();
+        try {
+            for (int i = 0; i < CREATES; i++) {
+                creates.add(pool.submit(() -> {
+                    start.await();
+                    accountsService.createAccount(customer(mobileNumber));
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<?> create : creates) {
+                try {
+                    create.get();
+                    created++;
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(CustomerAlreadyExistsException.class, ex.getCause());
+                }
+            }
+            assertEquals(1, created);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from customer where mobile_number = ?", Integer.class, mobileNumber));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from accounts a join customer c "
+                + "on a.customer_id = c.customer_id where c.mobile_number = ?", Integer.class, mobileNumber));
+    }
+
+    @Test
+    void fetchUpdateAndDeleteEachReadWithOneSelect() {
+        String mobileNumber = "0955555555";
+        accountsService.createAccount(customer(mobileNumber));
+        // nothing is answered from the second-level or query cache
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+
+        long selects = selects();
+        CustomerDto customerDto = accountsService.fetchAccount(mobileNumber);
+        assertEquals(1, selects() - selects, "fetch");
+
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        customerDto.setName("Renamed");
+        selects = selects();
+        assertTrue(accountsService.updateAccount(customerDto));
+        assertEquals(1, selects() - selects, "update");
+
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        selects = selects();
+        assertTrue(accountsService.deleteAccount(mobileNumber));
+        assertEquals(1, selects() - selects, "delete");
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from customer where mobile_number = ?", Integer.class, mobileNumber));
+    }
+
+    @Test
+    void aCustomerInsertedWithoutAVersionCanBeUpdated() {
+        String mobileNumber = "0944444444";
+        // as rows written before versioning, or by anything but this service, are
+        jdbcTemplate.update("insert into customer (customer_id, name, email, mobile_number, created_at, created_by) "
+                + "values (1000000, 'Unversioned', 'unversioned@example.com', ?, current_date, 'migration')", mobileNumber);
+        jdbcTemplate.update("insert into accounts (customer_id, account_number, account_type, branch_address, "
+                + "created_at, created_by) values (1000000, 1000000, 'Savings', 'Main Street', current_date, 'migration')");
+        CustomerDto customerDto = accountsService.fetchAccount(mobileNumber);
+        assertEquals(0L, customerDto.getVersion());
+        assertEquals(0L, customerDto.getAccountsDto().getVersion());
+        customerDto.setName("Versioned");
+        customerDto.getAccountsDto().setBranchAddress("High Street");
+
+        assertTrue(accountsService.updateAccount(customerDto));
+
+        assertEquals("Versioned", jdbcTemplate.queryForObject(
+                "select name from customer where mobile_number = ?", String.class, mobileNumber));
+        assertEquals(1L, accountsService.fetchAccount(mobileNumber).getVersion());
+        accountsService.deleteAccount(mobileNumber);
+    }
+
+    private long selects() {
+        return meterRegistry.find("jdbc.query").tag("type", "select").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private static CustomerDto customer(String mobileNumber) {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName("Race Condition");
+        customerDto.setEmail("race@example.com");
+        customerDto.setMobileNumber(mobileNumber);
+        return customerDto;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.accounts.service.impl;
+
+import com.example.accounts.dto.CardsDto;
+import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDetailsSection;
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.LoansDto;
+import com.example.accounts.service.AccountsService;
+import com.example.accounts.service.CustomersService;
+import com.example.accounts.service.client.CardsFeignClient;
+import com.example.accounts.service.client.LoansFeignClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ExtendWith(OutputCaptureExtension.class)
+class CustomersServiceImplTest {
+
+    private static final String MOBILE_NUMBER = "0977777777";
+    private static final Set<CustomerDetailsSection> ALL = EnumSet.allOf(CustomerDetailsSection.class);
+
+    @Autowired
+    private CustomersService customersService;
+
+    @Autowired
+    private AccountsService accountsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private CardsFeignClient cardsFeignClient;
+
+    @MockitoBean
+    private LoansFeignClient loansFeignClient;
+
+    @AfterEach
+    void tearDown() {
+        accountsService.deleteAccount(MOBILE_NUMBER);
+    }
+
+    @Test
+    void coalescedRequestsEachGetTheirOwnCopyAndLogTheirOwnCorrelationId(CapturedOutput output) throws Exception {
+        accountsService.createAccount(customer());
+        CountDownLatch release = new CountDownLatch(1);
+        when(cardsFeignClient.fetchCardDetails(anyString(), eq(MOBILE_NUMBER))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(card());
+        });
+        when(loansFeignClient.fetchLoanDetails(anyString(), eq(MOBILE_NUMBER))).thenReturn(ResponseEntity.ok(loan()));
+        double coalesced = meterRegistry.counter("customer.details.coalesced").count();
+
+        CompletableFuture<CustomerDetailsDto> leader = CompletableFuture.supplyAsync(
+                () -> customersService.fetchCustomerDetails(MOBILE_NUMBER, "leader-id", ALL));
+        verify(cardsFeignClient, timeout(5000)).fetchCardDetails("leader-id", MOBILE_NUMBER);
+        CompletableFuture<CustomerDetailsDto> follower = CompletableFuture.supplyAsync(
+                () -> customersService.fetchCustomerDetails(MOBILE_NUMBER, "follower-id", ALL));
+        while (meterRegistry.counter("customer.details.coalesced").count() == coalesced) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        CustomerDetailsDto leaderDetails = leader.get(5, TimeUnit.SECONDS);
+        CustomerDetailsDto followerDetails = follower.get(5, TimeUnit.SECONDS);
+
+        assertEquals(leaderDetails, followerDetails);
+        assertNotSame(leaderDetails, followerDetails);
+        assertNotSame(leaderDetails.getAccountsDto(), followerDetails.getAccountsDto());
+        assertNotSame(leaderDetails.getCardsDto(), followerDetails.getCardsDto());
+        assertNotSame(leaderDetails.getLoansDto(), followerDetails.getLoansDto());
+        followerDetails.setCardsDto(null);
+        followerDetails.getLoansDto().setAmountPaid(1);
+        assertEquals("4000111122223333", leaderDetails.getCardsDto().getCardNumber());
+        assertEquals(0, leaderDetails.getLoansDto().getAmountPaid());
+        assertNull(leaderDetails.getStaleSections());
+
+        verify(cardsFeignClient, atLeastOnce()).fetchCardDetails("leader-id", MOBILE_NUMBER);
+        verify(cardsFeignClient, never()).fetchCardDetails("follower-id", MOBILE_NUMBER);
+        assertTrue(output.getOut().contains("Request follower-id joined the customer details lookup in flight"),
+                "the follower's correlation id was not logged");
+    }
+
+    private static CustomerDto customer() {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName("Coalesced Customer");
+        customerDto.setEmail("coalesced@example.com");
+        customerDto.setMobileNumber(MOBILE_NUMBER);
+        return customerDto;
+    }
+
+    private static CardsDto card() {
+        CardsDto cardsDto = new CardsDto();
+        cardsDto.setMobileNumber(MOBILE_NUMBER);
+        cardsDto.setCardNumber("4000111122223333");
+        cardsDto.setCardType("Credit Card");
+        cardsDto.setTotalLimit(100000);
+        cardsDto.setAvailableAmount(100000);
+        return cardsDto;
+    }
+
+    private static LoansDto loan() {
+        LoansDto loansDto = new LoansDto();
+        loansDto.setMobileNumber(MOBILE_NUMBER);
+        loansDto.setLoanNumber("100077777777");
+        loansDto.setLoanType("Home Loan");
+        loansDto.setTotalLoan(100000);
+        loansDto.setOutstandingAmount(100000);
+        return loansDto;
+    }
+}
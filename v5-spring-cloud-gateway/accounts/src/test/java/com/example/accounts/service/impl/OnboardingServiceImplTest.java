@@ -0,0 +1,174 @@
+package com.example.accounts.service.impl;
+
+import com.example.accounts.dto.OnboardingReportDto;
+import com.example.accounts.dto.OnboardingResultDto;
+import com.example.accounts.dto.OnboardingStatus;
+import com.example.accounts.repository.CustomerRepository;
+import com.example.accounts.service.OnboardingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Chunks of two records, two of them inserted at a time, so even short requests span several
+ * chunks running concurrently.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:onboarding",
+        "accounts.onboarding.chunk-size=2",
+        "accounts.onboarding.parallelism=2"})
+class OnboardingServiceImplTest {
+
+    @Autowired
+    private OnboardingService onboardingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private CustomerRepository customerRepository;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from accounts");
+        jdbcTemplate.update("delete from customer");
+    }
+
+    @Test
+    void recordsOfEveryChunkAreReportedInRequestOrder() {
+        OnboardingReportDto report = onboardJson(customer(0), customer(1), customer(2), customer(3),
+                customer(4), customer(5), customer(6));
+
+        assertEquals(7, report.getReceived());
+        assertEquals(7, report.getCreated());
+        assertEquals(0, report.getRejected());
+        for (int i = 0; i < 7; i++) {
+            OnboardingResultDto result = report.getResults().get(i);
+            assertEquals(i, result.getIndex());
+            assertEquals(mobileNumber(i), result.getMobileNumber());
+            assertEquals(OnboardingStatus.CREATED, result.getStatus());
+            assertEquals(result.getAccountNumber(), jdbcTemplate.queryForObject("select a.account_number "
+                    + "from accounts a join customer c on a.customer_id = c.customer_id where c.mobile_number = ?",
+                    String.class, mobileNumber(i)));
+        }
+    }
+
+    @Test
+    void invalidRecordsAreReportedAndTheOthersOnboarded() {
+        OnboardingReportDto report = onboardJson(customer(0),
+                "{\"name\":\"Bad Record\",\"email\":\"not-an-email\",\"mobileNumber\":\"12345\"}",
+                "\"not a customer\"",
+                customer(3));
+
+        assertEquals(4, report.getReceived());
+        assertEquals(2, report.getCreated());
+        assertEquals(2, report.getRejected());
+        assertStatuses(report, OnboardingStatus.CREATED, OnboardingStatus.INVALID, OnboardingStatus.INVALID,
+                OnboardingStatus.CREATED);
+        assertEquals(Set.of("email", "mobileNumber"), report.getResults().get(1).getErrors().keySet());
+        assertEquals(Set.of("record"), report.getResults().get(2).getErrors().keySet());
+        assertEquals(2, customers());
+    }
+
+    @Test
+    void numbersRepeatedInTheRequestOrAlreadyRegisteredAreDuplicates() {
+        onboardJson(customer(0));
+
+        OnboardingReportDto report = onboardJson(customer(0), customer(1), customer(2), customer(2),
+                customer(1));
+
+        assertStatuses(report, OnboardingStatus.DUPLICATE, OnboardingStatus.CREATED, OnboardingStatus.CREATED,
+                OnboardingStatus.DUPLICATE, OnboardingStatus.DUPLICATE);
+        assertEquals(3, customers());
+    }
+
+    @Test
+    void numbersRegisteredBetweenTheCheckAndTheInsertAreDuplicates() {
+        onboardJson(customer(1));
+        // as if customer 1 was registered by another request just after the check
+        doReturn(Set.of()).when(customerRepository).findExistingMobileNumbers(any());
+
+        OnboardingReportDto report = onboardJson(customer(0), customer(1), customer(2));
+
+        assertStatuses(report, OnboardingStatus.CREATED, OnboardingStatus.DUPLICATE, OnboardingStatus.CREATED);
+        assertEquals(3, customers());
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from accounts", Integer.class));
+    }
+
+    @Test
+    void recordsReadBeforeTheBodyBreaksOffAreOnboarded() {
+        byte[] firstRecords = ("[" + customer(0) + "," + customer(1) + "," + customer(2) + ",")
+                .getBytes(StandardCharsets.UTF_8);
+        InputStream brokenOff = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        OnboardingReportDto report = onboardingService.onboardCustomersFromJson(
+                new SequenceInputStream(new ByteArrayInputStream(firstRecords), brokenOff));
+
+        assertEquals(3, report.getReceived());
+        assertEquals(3, report.getCreated());
+        assertNotNull(report.getError());
+        assertTrue(report.getError().startsWith("Record 3 could not be read"), report.getError());
+        assertEquals(3, customers());
+    }
+
+    @Test
+    void csvRecordsAreOnboarded() {
+        String csv = """
+                name,email,mobileNumber
+                Customer Zero,customer0@example.com,%s
+                Customer One,not-an-email,%s
+
+                Customer Two,customer2@example.com,%s
+                """.formatted(mobileNumber(0), mobileNumber(1), mobileNumber(2));
+
+        OnboardingReportDto report = onboardingService.onboardCustomersFromCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertStatuses(report, OnboardingStatus.CREATED, OnboardingStatus.INVALID, OnboardingStatus.CREATED);
+        assertEquals(2, customers());
+    }
+
+    private OnboardingReportDto onboardJson(String... records) {
+        String json = "[" + String.join(",", records) + "]";
+        return onboardingService.onboardCustomersFromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private int customers() {
+        return jdbcTemplate.queryForObject("select count(*) from customer", Integer.class);
+    }
+
+    private static void assertStatuses(OnboardingReportDto report, OnboardingStatus... statuses) {
+        assertEquals(List.of(statuses), report.getResults().stream().map(OnboardingResultDto::getStatus).toList());
+    }
+
+    private static String customer(int i) {
+        return "{\"name\":\"Customer " + i + "\",\"email\":\"customer" + i + "@example.com\","
+                + "\"mobileNumber\":\"" + mobileNumber(i) + "\"}";
+    }
+
+    private static String mobileNumber(int i) {
+        return String.format("094444444%d", i);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.accounts.sharding;
+
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.CustomerPageDto;
+import com.example.accounts.dto.OnboardingReportDto;
+import com.example.accounts.exception.ResourceNotFoundException;
+import com.example.accounts.service.AccountsService;
+import com.example.accounts.service.OnboardingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two shards in the middle of a ring change: {@code shard1} has just been added, so numbers the
+ * new ring puts there still have their rows on {@code primary} until they are touched.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded-primary",
+        "accounts.sharding.enabled=true",
+        "accounts.sharding.ring=primary,shard1",
+        "accounts.sharding.previous-ring=primary",
+        "accounts.sharding.shards.shard1.url=jdbc:h2:mem:sharded-shard1",
+        "accounts.sharding.shards.shard1.username=sa",
+        "accounts.sharding.shards.shard1.id-range=1"})
+class ShardedCustomersTest {
+
+    @Autowired
+    private AccountsService accountsService;
+
+    @Autowired
+    private OnboardingService onboardingService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource.unwrap(ShardRoutingDataSource.class).shards()
+                .forEach((shard, shardDataSource) -> shards.put(shard, new JdbcTemplate(shardDataSource)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.values().forEach(jdbcTemplate -> {
+            jdbcTemplate.update("delete from accounts");
+            jdbcTemplate.update("delete from customer");
+        });
+    }
+
+    @Test
+    void pagesMergeTheShardsInCustomerIdOrderAndCountCustomersWithoutAnAccount() {
+        // customers 2 and 3 have no account: the page after 1 must still come from primary's 4
+        insertCustomer("primary", 1, true);
+        insertCustomer("primary", 2, false);
+        insertCustomer("primary", 3, false);
+        insertCustomer("primary", 4, true);
+        insertCustomer("shard1", 5, true);
+        insertCustomer("shard1", 6, true);
+        insertCustomer("shard1", 7, true);
+
+        List<List<String>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            CustomerPageDto page = accountsService.fetchCustomers(cursor, 2, null, null);
+            pages.add(page.getCustomers().stream().map(CustomerDto::getMobileNumber).toList());
+            cursor = page.getNextCursor();
+        } while (cursor != null && pages.size() < 10);
+
+        assertEquals(List.of(
+                List.of(mobileNumber("primary", 1)),
+                List.of(mobileNumber("primary", 4)),
+                List.of(mobileNumber("shard1", 5), mobileNumber("shard1", 6)),
+                List.of(mobileNumber("shard1", 7))), pages);
+    }
+
+    @Test
+    void onboardedCustomersAreInsertedOnTheShardOfTheirNumber() {
+        List<String> mobileNumbers = IntStream.range(0, 20).mapToObj(i -> String.format("09333333%02d", i)).toList();
+        String json = mobileNumbers.stream()
+                .map(mobileNumber -> "{\"name\":\"Customer " + mobileNumber + "\",\"email\":\"c" + mobileNumber
+                        + "@example.com\",\"mobileNumber\":\"" + mobileNumber + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        OnboardingReportDto report = onboardingService.onboardCustomersFromJson(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(20, report.getCreated());
+        Map<String, List<String>> expected = mobileNumbers.stream()
+                .collect(Collectors.groupingBy(shardRouter::shardOf));
+        assertEquals(2, expected.size(), "the numbers should fall on both shards");
+        expected.forEach((shard, shardNumbers) -> {
+            assertEquals(shardNumbers, shards.get(shard).queryForList(
+                    "select mobile_number from customer order by mobile_number", String.class));
+            assertEquals(shardNumbers.size(), count(shard, "accounts"));
+        });
+    }
+
+    @Test
+    void rowsLeftOnThePreviousShardAreMovedWhenTheirNumberIsTouched() {
+        long customerId = 1;
+        while (!shardRouter.shardOf(mobileNumber("primary", customerId)).equals("shard1")) {
+            customerId++;
+        }
+        String mobileNumber = mobileNumber("primary", customerId);
+        insertCustomer("primary", customerId, true);
+
+        CustomerDto customer = accountsService.fetchAccount(mobileNumber);
+
+        assertEquals(mobileNumber, customer.getMobileNumber());
+        assertEquals(String.valueOf(customerId * 10), customer.getAccountsDto().getAccountNumber());
+        assertEquals(0, count("primary", "customer"));
+        assertEquals(0, count("primary", "accounts"));
+        assertEquals(customerId, shards.get("shard1").queryForObject(
+                "select customer_id from customer where mobile_number = ?", Long.class, mobileNumber));
+        assertEquals(1, count("shard1", "accounts"));
+        assertTrue(accountsService.deleteAccount(mobileNumber));
+        assertEquals(0, count("shard1", "customer"));
+    }
+
+    @Test
+    void updatesOfACustomerOnAnotherShardAreWrittenToThatShard() {
+        String mobileNumber = mobileNumberOn("shard1");
+        accountsService.createAccount(customer(mobileNumber));
+        CustomerDto customer = accountsService.fetchAccount(mobileNumber);
+        customer.setName("Renamed Customer");
+        customer.getAccountsDto().setBranchAddress("High Street");
+
+        assertTrue(accountsService.updateAccount(customer));
+
+        JdbcTemplate shard1 = shards.get("shard1");
+        assertEquals("Renamed Customer", shard1.queryForObject(
+                "select name from customer where mobile_number = ?", String.class, mobileNumber));
+        assertEquals("High Street", shard1.queryForObject(
+                "select branch_address from accounts where account_number = ?", String.class,
+                Long.valueOf(customer.getAccountsDto().getAccountNumber())));
+        assertEquals("Renamed Customer", accountsService.fetchAccount(mobileNumber).getName());
+    }
+
+    @Test
+    void deletesOfACustomerOnAnotherShardRemoveTheRowsFromThatShard() {
+        String mobileNumber = mobileNumberOn("shard1");
+        accountsService.createAccount(customer(mobileNumber));
+        accountsService.fetchAccount(mobileNumber);
+
+        assertTrue(accountsService.deleteAccount(mobileNumber));
+
+        assertEquals(0, count("shard1", "customer"));
+        assertEquals(0, count("shard1", "accounts"));
+        assertThrows(ResourceNotFoundException.class, () -> accountsService.fetchAccount(mobileNumber));
+    }
+
+    @Test
+    void pagingEndsWithoutACursorWhenNoShardHasCustomers() {
+        CustomerPageDto page = accountsService.fetchCustomers(null, 5, null, null);
+
+        assertEquals(List.of(), page.getCustomers());
+        assertNull(page.getNextCursor());
+    }
+
+    private void insertCustomer(String shard, long customerId, boolean withAccount) {
+        JdbcTemplate jdbcTemplate = shards.get(shard);
+        jdbcTemplate.update("insert into customer (customer_id, name, email, mobile_number, created_at, created_by, "
+                        + "version) values (?, ?, ?, ?, current_timestamp, 'test', 0)",
+                customerId, "Customer " + customerId, "customer" + customerId + "@example.com",
+                mobileNumber(shard, customerId));
+        if (withAccount) {
+            jdbcTemplate.update("insert into accounts (customer_id, account_number, account_type, branch_address, "
+                            + "created_at, created_by, version) values (?, ?, 'Savings', 'Main Street', "
+                            + "current_timestamp, 'test', 0)",
+                    customerId, customerId * 10);
+        }
+    }
+
+    private String mobileNumberOn(String shard) {
+        return IntStream.range(0, 100).mapToObj(i -> String.format("09444444%02d", i))
+                .filter(mobileNumber -> shardRouter.shardOf(mobileNumber).equals(shard))
+                .findFirst().orElseThrow();
+    }
+
+    private static CustomerDto customer(String mobileNumber) {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName("Customer " + mobileNumber);
+        customerDto.setEmail("c" + mobileNumber + "@example.com");
+        customerDto.setMobileNumber(mobileNumber);
+        return customerDto;
+    }
+
+    private int count(String shard, String table) {
+        return shards.get(shard).queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    private static String mobileNumber(String shard, long customerId) {
+        return String.format("09%d%07d", shard.equals("primary") ? 1 : 2, customerId);
+    }
+}
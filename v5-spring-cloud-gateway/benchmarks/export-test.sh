@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Exports CUSTOMERS customers through /api/exportAccounts from an accounts service capped at HEAP,
+# and reports the time it took and accounts' heap before and during the export. The database is an
+# H2 server in a JVM of its own, so neither the rows nor H2's page cache are on the heap measured.
+#
+#   ./export-test.sh
+#   CUSTOMERS=200000 HEAP=128m ./export-test.sh
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+CUSTOMERS=${CUSTOMERS:-1000000}
+HEAP=${HEAP:-128m}
+ACCOUNTS_PORT=${ACCOUNTS_PORT:-8080}
+H2_PORT=${H2_PORT:-9092}
+STARTUP_TIMEOUT=${STARTUP_TIMEOUT:-180}
+# anything else to pass to accounts, e.g. a larger export fetch size
+ACCOUNTS_ARGS=${ACCOUNTS_ARGS:-}
+
+(cd ../accounts && ./mvnw -B -q package -DskipTests)
+./mvnw -B -q package -DskipTests
+ACCOUNTS_JAR=../accounts/target/accounts-0.0.1-SNAPSHOT.jar
+
+rm -f target/export-test.mv.db target/export-test.trace.db
+# the H2 server is started from the driver packaged with accounts
+java -cp "$ACCOUNTS_JAR" -Dloader.main=org.h2.tools.Server \
+  org.springframework.boot.loader.launch.PropertiesLauncher \
+  -tcp -tcpPort "$H2_PORT" -ifNotExists -baseDir "$PWD/target" > target/h2-export.log 2>&1 &
+H2_PID=$!
+ACCOUNTS_PID=
+trap 'kill $ACCOUNTS_PID $H2_PID 2>/dev/null || true' EXIT
+
+# shellcheck disable=SC2086
+java -Xmx"$HEAP" -jar "$ACCOUNTS_JAR" \
+  --server.port="$ACCOUNTS_PORT" \
+  --spring.datasource.url="jdbc:h2:tcp://localhost:$H2_PORT/export-test" \
+  --spring.sql.init.mode=always \
+  --spring.cloud.config.enabled=false \
+  --eureka.client.enabled=false \
+  --build.version=bench \
+  --logging.level.root=WARN \
+  $ACCOUNTS_ARGS > target/accounts-export.log 2>&1 &
+ACCOUNTS_PID=$!
+for _ in $(seq "$STARTUP_TIMEOUT"); do
+  if curl -sf "localhost:$ACCOUNTS_PORT/actuator/health" > /dev/null; then
+    break
+  fi
+  if ! kill -0 "$ACCOUNTS_PID" 2>/dev/null; then
+    echo "accounts exited on startup, see target/accounts-export.log" >&2
+    exit 1
+  fi
+  sleep 1
+done
+if ! curl -sf "localhost:$ACCOUNTS_PORT/actuator/health" > /dev/null; then
+  echo "accounts did not start within ${STARTUP_TIMEOUT}s, see target/accounts-export.log" >&2
+  exit 1
+fi
+
+echo "=== $CUSTOMERS customers, accounts heap capped at $HEAP ==="
+java -cp target/benchmarks.jar com.example.benchmarks.ExportLoadTest export \
+  "http://localhost:$ACCOUNTS_PORT" "$CUSTOMERS"
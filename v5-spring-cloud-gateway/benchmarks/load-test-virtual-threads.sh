@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Compares the concurrency accounts sustains on /api/fetchCustomerDetails with platform threads
+# and with virtual threads, cards and loans being stubs that answer after DELAY_MS.
+# Needs JDK 21 on the PATH: the virtual mode is built with -Pjava21.
+#
+#   ./load-test-virtual-threads.sh
+#   DELAY_MS=500 LEVELS=100,400,1600 ./load-test-virtual-threads.sh
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+DELAY_MS=${DELAY_MS:-200}
+LEVELS=${LEVELS:-50,100,200,400,800,1600}
+SECONDS_PER_LEVEL=${SECONDS_PER_LEVEL:-30}
+P99_SLO_MS=${P99_SLO_MS:-1000}
+CUSTOMERS=${CUSTOMERS:-5000}
+STUB_PORT=${STUB_PORT:-9100}
+ACCOUNTS_PORT=${ACCOUNTS_PORT:-8080}
+STARTUP_TIMEOUT=${STARTUP_TIMEOUT:-180}
+# anything else to pass to accounts, e.g. a larger Feign connection pool
+ACCOUNTS_ARGS=${ACCOUNTS_ARGS:-}
+
+(cd ../accounts && ./mvnw -B -q -Pjava21 package -DskipTests)
+./mvnw -B -q package -DskipTests
+
+java -cp target/benchmarks.jar com.example.benchmarks.CustomerDetailsLoadTest stub "$STUB_PORT" "$DELAY_MS" &
+STUB_PID=$!
+ACCOUNTS_PID=
+trap 'kill $STUB_PID $ACCOUNTS_PID 2>/dev/null || true' EXIT
+
+for virtual in false true; do
+  echo "=== spring.threads.virtual.enabled=$virtual, downstream delay ${DELAY_MS} ms ==="
+  # shellcheck disable=SC2086
+  java -jar ../accounts/target/accounts-0.0.1-SNAPSHOT.jar \
+    --server.port="$ACCOUNTS_PORT" \
+    --spring.threads.virtual.enabled="$virtual" \
+    --spring.cloud.config.enabled=false \
+    --eureka.client.enabled=false \
+    --build.version=bench \
+    --spring.cloud.discovery.client.simple.instances.cards[0].uri="http://localhost:$STUB_PORT" \
+    --spring.cloud.discovery.client.simple.instances.loans[0].uri="http://localhost:$((STUB_PORT + 1))" \
+    --logging.level.root=WARN \
+    $ACCOUNTS_ARGS > "target/accounts-virtual-$virtual.log" 2>&1 &
+  ACCOUNTS_PID=$!
+  for _ in $(seq "$STARTUP_TIMEOUT"); do
+    if curl -sf "localhost:$ACCOUNTS_PORT/actuator/health" > /dev/null; then
+      break
+    fi
+    if ! kill -0 "$ACCOUNTS_PID" 2>/dev/null; then
+      echo "accounts exited on startup, see target/accounts-virtual-$virtual.log" >&2
+      exit 1
+    fi
+    sleep 1
+  done
+  if ! curl -sf "localhost:$ACCOUNTS_PORT/actuator/health" > /dev/null; then
+    echo "accounts did not start within ${STARTUP_TIMEOUT}s, see target/accounts-virtual-$virtual.log" >&2
+    exit 1
+  fi
+
+  java -cp target/benchmarks.jar com.example.benchmarks.CustomerDetailsLoadTest load \
+    "http://localhost:$ACCOUNTS_PORT" "$CUSTOMERS" "$LEVELS" "$SECONDS_PER_LEVEL" "$P99_SLO_MS"
+
+  kill "$ACCOUNTS_PID"
+  wait "$ACCOUNTS_PID" 2>/dev/null || true
+  ACCOUNTS_PID=
+done
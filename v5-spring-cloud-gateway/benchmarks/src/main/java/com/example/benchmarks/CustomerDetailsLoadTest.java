@@ -0,0 +1,230 @@
+package com.example.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of {@code /api/fetchCustomerDetails} against a slow downstream, to compare the
+ * concurrency accounts sustains on platform threads and on virtual threads. Not a JMH benchmark:
+ * it drives a running accounts service over HTTP. {@code load-test-virtual-threads.sh} runs it
+ * against both modes.
+ * <p>
+ * {@code stub <port> <delayMillis>} stands in for cards on {@code port} and loans on
+ * {@code port + 1}, answering every call after {@code delayMillis}.
+ * <p>
+ * {@code load <accountsUrl> <customers> <concurrencyLevels> <secondsPerLevel> <p99SloMillis>}
+ * onboards {@code customers} customers, then at each comma-separated concurrency level keeps
+ * that many requests in flight for {@code secondsPerLevel}, each for a customer of its own so
+ * no two are coalesced as long as there are more customers than requests in flight. It prints
+ * the throughput and latency per level, and as the maximum sustainable concurrency the highest
+ * level whose p99 stays within the SLO with under 1% of the responses failed or degraded, a
+ * degraded one having fallen back on stale cards or loans.
+ */
+public class CustomerDetailsLoadTest {
+
+    private static final Pattern MOBILE_NUMBER = Pattern.compile("\\d{10}");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("stub")) {
+            stub(Integer.parseInt(args[1]), Duration.ofMillis(Long.parseLong(args[2])));
+        } else if (args.length == 6 && args[0].equals("load")) {
+            load(URI.create(args[1]), Integer.parseInt(args[2]),
+                    Arrays.stream(args[3].split(",")).mapToInt(Integer::parseInt).toArray(),
+                    Duration.ofSeconds(Long.parseLong(args[4])), Duration.ofMillis(Long.parseLong(args[5])));
+        } else {
+            System.err.println("usage: stub <port> <delayMillis>");
+            System.err.println("       load <accountsUrl> <customers> <concurrencyLevels> <secondsPerLevel> "
+                    + "<p99SloMillis>");
+            System.exit(2);
+        }
+    }
+
+    private static void stub(int port, Duration delay) throws IOException {
+        startStub(port, delay, mobileNumber -> "{\"mobileNumber\":\"" + mobileNumber + "\",\"cardNumber\":\"1"
+                + mobileNumber + "0\",\"cardType\":\"Credit Card\",\"totalLimit\":100000,\"amountUsed\":0,"
+                + "\"availableAmount\":100000,\"version\":0}");
+        startStub(port + 1, delay, mobileNumber -> "{\"mobileNumber\":\"" + mobileNumber + "\",\"loanNumber\":\"1"
+                + mobileNumber + "0\",\"loanType\":\"Home Loan\",\"totalLoan\":100000,\"amountPaid\":0,"
+                + "\"outstandingAmount\":100000,\"version\":0}");
+        System.out.printf("cards stub on %d, loans stub on %d, answering after %d ms%n", port, port + 1,
+                delay.toMillis());
+    }
+
+    private static void startStub(int port, Duration delay, Function<String, String> body)
+            throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        // a thread per call, so the stub itself never queues and the delay is all the caller sees
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/fetch", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            respond(exchange, delay, body.apply(mobileNumbers(query == null ? "" : query).get(0)));
+        });
+        server.createContext("/api/fetchBulk", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            respond(exchange, delay, mobileNumbers(request).stream().map(body)
+                    .collect(Collectors.joining(",", "[", "]")));
+        });
+        server.start();
+    }
+
+    private static List<String> mobileNumbers(String text) {
+        List<String> mobileNumbers = new ArrayList<>();
+        Matcher matcher = MOBILE_NUMBER.matcher(text);
+        while (matcher.find()) {
+            mobileNumbers.add(matcher.group());
+        }
+        return mobileNumbers;
+    }
+
+    private static void respond(HttpExchange exchange, Duration delay, String body) throws IOException {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void load(URI accounts, int customers, int[] levels, Duration perLevel, Duration p99Slo)
+            throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newCachedThreadPool())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        onboard(client, accounts, customers);
+
+        int sustainable = 0;
+        System.out.printf("%11s %10s %9s %9s %9s %8s %9s%n", "concurrency", "req/s", "p50 ms", "p99 ms", "max ms",
+                "errors", "degraded");
+        for (int concurrency : levels) {
+            Level level = run(client, accounts, customers, concurrency, perLevel);
+            System.out.printf("%11d %10.0f %9.1f %9.1f %9.1f %7.2f%% %8.2f%%%n", concurrency,
+                    level.requests() / (double) perLevel.toSeconds(), level.percentileMillis(0.50),
+                    level.percentileMillis(0.99), level.percentileMillis(1.0), level.rate(level.errors()) * 100,
+                    level.rate(level.degraded()) * 100);
+            if (level.percentileMillis(0.99) <= p99Slo.toMillis()
+                    && level.rate(level.errors() + level.degraded()) < 0.01) {
+                sustainable = concurrency;
+            }
+        }
+        System.out.printf("max sustainable concurrency (p99 <= %d ms, under 1%% failed or degraded): %d%n",
+                p99Slo.toMillis(), sustainable);
+        System.exit(0);
+    }
+
+    private static void onboard(HttpClient client, URI accounts, int customers) throws Exception {
+        String body = IntStream.range(0, customers)
+                .mapToObj(i -> "{\"name\":\"Load " + i + "\",\"email\":\"load" + i + "@example.com\","
+                        + "\"mobileNumber\":\"" + mobileNumber(i) + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(accounts.resolve("/api/onboard"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || !response.body().contains("\"created\":" + customers)) {
+            throw new IllegalStateException("Onboarding failed: " + response.statusCode() + " "
+                    + response.body().substring(0, Math.min(500, response.body().length())));
+        }
+        System.out.printf("onboarded %d customers%n", customers);
+    }
+
+    private static String mobileNumber(int customer) {
+        return String.format("07%08d", customer);
+    }
+
+    private static Level run(HttpClient client, URI accounts, int customers, int concurrency, Duration duration)
+            throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        AtomicLong nextCustomer = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong degraded = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long[] own = new long[1 << 16];
+            latencies.add(own);
+            Thread worker = new Thread(() -> {
+                int count = 0;
+                while (System.nanoTime() < end && count < own.length - 1) {
+                    String mobileNumber = mobileNumber((int) (nextCustomer.getAndIncrement() % customers));
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                                        accounts.resolve("/api/fetchCustomerDetails?mobileNumber=" + mobileNumber))
+                                .header("mybank-correlation-id", "load-" + mobileNumber)
+                                .timeout(Duration.ofSeconds(30))
+                                .build(), HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else if (response.body().contains("\"staleSections\"")) {
+                            degraded.incrementAndGet();
+                        }
+                    } catch (IOException ex) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    own[++count] = System.nanoTime() - start;
+                }
+                own[0] = count;
+                done.countDown();
+            }, "load-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        long[] all = latencies.stream()
+                .flatMapToLong(own -> Arrays.stream(own, 1, (int) own[0] + 1))
+                .sorted()
+                .toArray();
+        return new Level(all, errors.get(), degraded.get());
+    }
+
+    private record Level(long[] sortedNanos, long errors, long degraded) {
+
+        long requests() {
+            return sortedNanos.length;
+        }
+
+        double rate(long responses) {
+            return sortedNanos.length == 0 ? 1 : responses / (double) sortedNanos.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
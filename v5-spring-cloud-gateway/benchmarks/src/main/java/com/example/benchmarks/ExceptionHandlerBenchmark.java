@@ -0,0 +1,82 @@
+package com.example.benchmarks;
+
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.ErrorResponseDto;
+import com.example.accounts.exception.GlobalExceptionHandler;
+import com.example.accounts.exception.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The accounts error path: a lookup that misses, from throwing {@link ResourceNotFoundException}
+ * to the 404 body, and a request body that fails validation, from binding errors to the 400 body.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+    private LocalValidatorFactoryBean validator;
+    private MethodParameter requestBody;
+    private WebRequest webRequest;
+    private CustomerDto invalidCustomerDto;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        globalExceptionHandler = new GlobalExceptionHandler();
+        validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        requestBody = new MethodParameter(
+                ExceptionHandlerBenchmark.class.getDeclaredMethod("createAccount", CustomerDto.class), 0);
+        webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/fetch"));
+        invalidCustomerDto = Fixtures.customerDto();
+        invalidCustomerDto.setName("Jo");
+        invalidCustomerDto.setMobileNumber("43544-3768");
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponseDto> resourceNotFound() {
+        try {
+            throw new ResourceNotFoundException("Customer", "mobileNumber", Fixtures.MOBILE_NUMBER);
+        } catch (ResourceNotFoundException ex) {
+            return globalExceptionHandler.handleResourceNotFoundException(ex, webRequest);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> validationFailure() throws Exception {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalidCustomerDto, "customerDto");
+        validator.validate(invalidCustomerDto, bindingResult);
+        return globalExceptionHandler.handleException(
+                new MethodArgumentNotValidException(requestBody, bindingResult), webRequest);
+    }
+
+    /**
+     * Stands in for the controller method whose {@code @RequestBody} failed validation.
+     */
+    @SuppressWarnings("unused")
+    private void createAccount(CustomerDto customerDto) {
+    }
+}
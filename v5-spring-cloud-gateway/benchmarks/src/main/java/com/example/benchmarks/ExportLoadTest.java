@@ -0,0 +1,154 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Time and memory check of {@code /api/exportAccounts} on a large table. Not a JMH benchmark: it
+ * drives a running accounts service over HTTP. {@code export-test.sh} runs it against a million
+ * customers on a heap far smaller than the export.
+ * <p>
+ * {@code export <accountsUrl> <customers>} onboards {@code customers} customers in batches, then
+ * reads the whole export as it arrives, counting its records and bytes without keeping them.
+ * While it runs, accounts' heap is sampled from {@code /actuator/metrics} every 100 ms. It prints
+ * the time to the first byte and to the last, the throughput, and the heap before and at its
+ * highest during the export, both in use and retained after the last collection. What is in use
+ * includes garbage not collected yet; what is retained is what the export holds on to, and with
+ * a streamed export that stays flat however many rows there are.
+ */
+public class ExportLoadTest {
+
+    private static final int ONBOARDING_BATCH = 50_000;
+    private static final Pattern VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("export")) {
+            export(URI.create(args[1]), Integer.parseInt(args[2]));
+        } else {
+            System.err.println("usage: export <accountsUrl> <customers>");
+            System.exit(2);
+        }
+    }
+
+    private static void export(URI accounts, int customers) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        onboard(client, accounts, customers);
+
+        long heapMax = (long) metric(client, accounts, "jvm.memory.max?tag=area:heap");
+        long heapBefore = (long) metric(client, accounts, "jvm.memory.used?tag=area:heap");
+        long retainedBefore = retained(client, accounts);
+        AtomicLong heapPeak = new AtomicLong(heapBefore);
+        AtomicLong retainedPeak = new AtomicLong(retainedBefore);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                heapPeak.accumulateAndGet((long) metric(client, accounts, "jvm.memory.used?tag=area:heap"), Math::max);
+                retainedPeak.accumulateAndGet(retained(client, accounts), Math::max);
+            } catch (IOException ex) {
+                // a missed sample only makes the peak less precise
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, 0, 100, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(accounts.resolve("/api/exportAccounts"))
+                .header("mybank-correlation-id", "export-test")
+                .build(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Export failed: " + response.statusCode());
+        }
+        long firstByte = 0;
+        long bytes = 0;
+        long records = 0;
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream body = response.body()) {
+            for (int read = body.read(buffer); read != -1; read = body.read(buffer)) {
+                if (firstByte == 0) {
+                    firstByte = System.nanoTime() - start;
+                }
+                bytes += read;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        records++;
+                    }
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        sampler.shutdownNow();
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("exported %d records, %.1f MB%n", records, bytes / 1e6);
+        System.out.printf("first byte after %.0f ms, last after %.1f s: %.0f records/s, %.1f MB/s%n",
+                firstByte / 1e6, seconds, records / seconds, bytes / 1e6 / seconds);
+        System.out.printf("accounts heap in use: %.0f MB before, %.0f MB at most during the export, of %.0f MB%n",
+                heapBefore / 1e6, heapPeak.get() / 1e6, heapMax / 1e6);
+        System.out.printf("accounts heap retained after GC: %.0f MB before, %.0f MB at most during the export%n",
+                retainedBefore / 1e6, retainedPeak.get() / 1e6);
+        if (records < customers) {
+            System.out.printf("fewer records than the %d customers onboarded%n", customers);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void onboard(HttpClient client, URI accounts, int customers) throws Exception {
+        long created = 0;
+        for (int from = 0; from < customers; from += ONBOARDING_BATCH) {
+            String body = IntStream.range(from, Math.min(customers, from + ONBOARDING_BATCH))
+                    .mapToObj(i -> "{\"name\":\"Export " + i + "\",\"email\":\"export" + i + "@example.com\","
+                            + "\"mobileNumber\":\"" + String.format("06%08d", i) + "\"}")
+                    .collect(Collectors.joining(",", "[", "]"));
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(accounts.resolve("/api/onboard"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = Pattern.compile("\"created\"\\s*:\\s*(\\d+)").matcher(response.body());
+            if (response.statusCode() != 200 || !matcher.find()) {
+                throw new IllegalStateException("Onboarding failed: " + response.statusCode() + " "
+                        + response.body().substring(0, Math.min(500, response.body().length())));
+            }
+            created += Long.parseLong(matcher.group(1));
+        }
+        // on a database kept from an earlier run the customers are already there, as duplicates
+        System.out.printf("onboarded %d customers, %d of them new%n", customers, created);
+    }
+
+    /**
+     * @return the bytes of the long-lived heap pool in use after the last collection
+     */
+    private static long retained(HttpClient client, URI accounts) throws IOException, InterruptedException {
+        return (long) (metric(client, accounts, "jvm.memory.usage.after.gc?tag=pool:long-lived")
+                * metric(client, accounts, "jvm.gc.max.data.size"));
+    }
+
+    private static double metric(HttpClient client, URI accounts, String metric)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                        accounts.resolve("/actuator/metrics/" + metric))
+                .timeout(Duration.ofSeconds(5))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = VALUE.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IOException("No " + metric + " from accounts: " + response.statusCode());
+        }
+        return Double.parseDouble(matcher.group(1));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.benchmarks;
+
+import com.example.accounts.dto.AccountsDto;
+import com.example.accounts.dto.CardsDto;
+import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.dto.LoansDto;
+import com.example.accounts.entity.Accounts;
+import com.example.accounts.entity.Customer;
+import com.example.cards.entity.Cards;
+import com.example.loans.entity.Loans;
+
+import java.time.LocalDateTime;
+
+/**
+ * One customer with an account, a card and a loan, shaped like the rows the services return.
+ */
+final class Fixtures {
+
+    static final String MOBILE_NUMBER = "4354437687";
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    private Fixtures() {
+    }
+
+    static Customer customer() {
+        Customer customer = new Customer();
+        customer.setCustomerId(1L);
+        customer.setName("John Doe");
+        customer.setEmail("john.doe@example.com");
+        customer.setMobileNumber(MOBILE_NUMBER);
+        customer.setCreatedAt(CREATED_AT);
+        customer.setCreatedBy("ACCOUNTS_MS");
+        return customer;
+    }
+
+    static Accounts accounts() {
+        Accounts accounts = new Accounts();
+        accounts.setCustomerId(1L);
+        accounts.setAccountNumber(1000000001L);
+        accounts.setAccountType("Savings");
+        accounts.setBranchAddress("123 Main St, New York");
+        accounts.setCreatedAt(CREATED_AT);
+        accounts.setCreatedBy("ACCOUNTS_MS");
+        return accounts;
+    }
+
+    static Cards cards() {
+        Cards cards = new Cards();
+        cards.setCardId(1L);
+        cards.setMobileNumber(MOBILE_NUMBER);
+        cards.setCardNumber("100646930341");
+        cards.setCardType("Credit Card");
+        cards.setTotalLimit(100_000);
+        cards.setAmountUsed(1_000);
+        cards.setAvailableAmount(99_000);
+        cards.setCreatedAt(CREATED_AT);
+        cards.setCreatedBy("CARDS_MS");
+        return cards;
+    }
+
+    static Loans loans() {
+        Loans loans = new Loans();
+        loans.setLoanId(1L);
+        loans.setMobileNumber(MOBILE_NUMBER);
+        loans.setLoanNumber("548732457654");
+        loans.setLoanType("Home Loan");
+        loans.setTotalLoan(100_000);
+        loans.setAmountPaid(1_000);
+        loans.setOutstandingAmount(99_000);
+        loans.setCreatedAt(CREATED_AT);
+        loans.setCreatedBy("LOANS_MS");
+        return loans;
+    }
+
+    static CustomerDto customerDto() {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName("John Doe");
+        customerDto.setEmail("john.doe@example.com");
+        customerDto.setMobileNumber(MOBILE_NUMBER);
+        return customerDto;
+    }
+
+    /**
+     * The aggregate accounts sends back from {@code /api/fetchCustomerDetails}.
+     */
+    static CustomerDetailsDto customerDetailsDto() {
+        CustomerDetailsDto customerDetailsDto = new CustomerDetailsDto();
+        customerDetailsDto.setName("John Doe");
+        customerDetailsDto.setEmail("john.doe@example.com");
+        customerDetailsDto.setMobileNumber(MOBILE_NUMBER);
+        AccountsDto accountsDto = new AccountsDto();
+        accountsDto.setAccountNumber("1000000001");
+        accountsDto.setAccountType("Savings");
+        accountsDto.setBranchAddress("123 Main St, New York");
+        customerDetailsDto.setAccountsDto(accountsDto);
+        CardsDto cardsDto = new CardsDto();
+        cardsDto.setMobileNumber(MOBILE_NUMBER);
+        cardsDto.setCardNumber("100646930341");
+        cardsDto.setCardType("Credit Card");
+        cardsDto.setTotalLimit(100_000);
+        cardsDto.setAmountUsed(1_000);
+        cardsDto.setAvailableAmount(99_000);
+        customerDetailsDto.setCardsDto(cardsDto);
+        LoansDto loansDto = new LoansDto();
+        loansDto.setMobileNumber(MOBILE_NUMBER);
+        loansDto.setLoanNumber("548732457654");
+        loansDto.setLoanType("Home Loan");
+        loansDto.setTotalLoan(100_000);
+        loansDto.setAmountPaid(1_000);
+        loansDto.setOutstandingAmount(99_000);
+        customerDetailsDto.setLoansDto(loansDto);
+        return customerDetailsDto;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.benchmarks;
+
+import com.example.accounts.dto.AccountsDto;
+import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.accounts.dto.CustomerDto;
+import com.example.accounts.entity.Accounts;
+import com.example.accounts.entity.Customer;
+import com.example.accounts.mapper.AccountsMapper;
+import com.example.accounts.mapper.CustomerMapper;
+import com.example.cards.dto.CardsDto;
+import com.example.cards.entity.Cards;
+import com.example.cards.mapper.CardsMapper;
+import com.example.loans.dto.LoansDto;
+import com.example.loans.entity.Loans;
+import com.example.loans.mapper.LoansMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO and back, the way the services map on every request. Each round trip allocates
+ * the same objects the controllers do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private Customer customer;
+    private Accounts accounts;
+    private Cards cards;
+    private Loans loans;
+
+    @Setup
+    public void setUp() {
+        customer = Fixtures.customer();
+        accounts = Fixtures.accounts();
+        cards = Fixtures.cards();
+        loans = Fixtures.loans();
+    }
+
+    @Benchmark
+    public Customer customerRoundTrip() {
+        CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
+        return CustomerMapper.mapToCustomer(customerDto, new Customer());
+    }
+
+    @Benchmark
+    public CustomerDetailsDto customerDetails() {
+        CustomerDetailsDto customerDetailsDto = CustomerMapper.mapToCustomerDetailsDto(customer,
+                new CustomerDetailsDto());
+        customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+        return customerDetailsDto;
+    }
+
+    @Benchmark
+    public Accounts accountsRoundTrip() {
+        AccountsDto accountsDto = AccountsMapper.mapToAccountsDto(accounts, new AccountsDto());
+        return AccountsMapper.mapToAccounts(accountsDto, new Accounts());
+    }
+
+    @Benchmark
+    public Cards cardsRoundTrip() {
+        CardsDto cardsDto = CardsMapper.mapToCardsDto(cards, new CardsDto());
+        return CardsMapper.mapToCards(cardsDto, new Cards());
+    }
+
+    @Benchmark
+    public Loans loansRoundTrip() {
+        LoansDto loansDto = LoansMapper.mapToLoansDto(loans, new LoansDto());
+        return LoansMapper.mapToLoans(loansDto, new Loans());
+    }
+}
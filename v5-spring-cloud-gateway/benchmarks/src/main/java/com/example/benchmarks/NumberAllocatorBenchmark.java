@@ -0,0 +1,79 @@
+package com.example.benchmarks;
+
+import com.example.accounts.service.identifier.AccountNumberAllocator;
+import com.example.cards.service.identifier.CardNumberAllocator;
+import com.example.loans.service.identifier.LoanNumberAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Allocations per second of the hi/lo number allocators, contended by several request threads
+ * the way parallel creates contend them. The block claim stands in for the {@code number_block}
+ * update and takes {@code claimMicros}, about a database round trip; only one allocation in a
+ * block pays for it.
+ * <p>
+ * {@code java -jar target/benchmarks.jar NumberAllocatorBenchmark -t 1} gives the uncontended figure.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class NumberAllocatorBenchmark {
+
+    @Param({"0", "500"})
+    private long claimMicros;
+
+    private AccountNumberAllocator accountNumberAllocator;
+    private CardNumberAllocator cardNumberAllocator;
+    private LoanNumberAllocator loanNumberAllocator;
+
+    // fresh allocators every iteration, so a fast run does not exhaust the account number space
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AtomicLong hi = new AtomicLong();
+        long claimNanos = TimeUnit.MICROSECONDS.toNanos(claimMicros);
+        accountNumberAllocator = new AccountNumberAllocator(name -> claim(hi, claimNanos));
+        cardNumberAllocator = new CardNumberAllocator(name -> claim(hi, claimNanos));
+        loanNumberAllocator = new LoanNumberAllocator(name -> claim(hi, claimNanos));
+    }
+
+    private static long claim(AtomicLong hi, long claimNanos) {
+        if (claimNanos > 0) {
+            LockSupport.parkNanos(claimNanos);
+        }
+        return hi.getAndIncrement();
+    }
+
+    @Benchmark
+    public long accountNumber() {
+        return accountNumberAllocator.nextAccountNumber();
+    }
+
+    @Benchmark
+    public String cardNumber() {
+        return cardNumberAllocator.nextCardNumber();
+    }
+
+    @Benchmark
+    public String loanNumber() {
+        return loanNumberAllocator.nextLoanNumber();
+    }
+}
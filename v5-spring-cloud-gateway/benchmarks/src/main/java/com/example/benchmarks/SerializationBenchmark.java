@@ -0,0 +1,86 @@
+package com.example.benchmarks;
+
+import com.example.accounts.dto.CustomerDetailsDto;
+import com.example.cards.dto.CardsDto;
+import com.example.cards.mapper.CardsMapper;
+import com.example.loans.dto.LoansDto;
+import com.example.loans.mapper.LoansMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson on the response bodies: what cards and loans write, what accounts reads back from
+ * them through Feign, and the aggregate accounts writes. The mapper is built the way Spring
+ * Boot builds the one MVC uses.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private CustomerDetailsDto customerDetailsDto;
+    private CardsDto cardsDto;
+    private LoansDto loansDto;
+    private byte[] customerDetailsJson;
+    private byte[] cardsJson;
+    private byte[] loansJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        customerDetailsDto = Fixtures.customerDetailsDto();
+        cardsDto = CardsMapper.mapToCardsDto(Fixtures.cards(), new CardsDto());
+        loansDto = LoansMapper.mapToLoansDto(Fixtures.loans(), new LoansDto());
+        customerDetailsJson = objectMapper.writeValueAsBytes(customerDetailsDto);
+        cardsJson = objectMapper.writeValueAsBytes(cardsDto);
+        loansJson = objectMapper.writeValueAsBytes(loansDto);
+    }
+
+    @Benchmark
+    public byte[] writeCustomerDetails() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customerDetailsDto);
+    }
+
+    @Benchmark
+    public CustomerDetailsDto readCustomerDetails() throws IOException {
+        return objectMapper.readValue(customerDetailsJson, CustomerDetailsDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeCards() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cardsDto);
+    }
+
+    @Benchmark
+    public com.example.accounts.dto.CardsDto readCardsInAccounts() throws IOException {
+        return objectMapper.readValue(cardsJson, com.example.accounts.dto.CardsDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeLoans() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(loansDto);
+    }
+
+    @Benchmark
+    public com.example.accounts.dto.LoansDto readLoansInAccounts() throws IOException {
+        return objectMapper.readValue(loansJson, com.example.accounts.dto.LoansDto.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.benchmarks;
+
+import com.example.accounts.dto.CustomerDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of the mobile number, which every endpoint checks with {@code @Pattern}, and
+ * of a whole {@link CustomerDto} as {@code /api/create} receives it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CustomerDto customerDto;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        customerDto = Fixtures.customerDto();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CustomerDto>> validMobileNumber() {
+        return validator.validateValue(CustomerDto.class, "mobileNumber", Fixtures.MOBILE_NUMBER);
+    }
+
+    /**
+     * The rejected case also builds the violation and interpolates its message.
+     */
+    @Benchmark
+    public Set<ConstraintViolation<CustomerDto>> invalidMobileNumber() {
+        return validator.validateValue(CustomerDto.class, "mobileNumber", "43544-3768");
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CustomerDto>> customer() {
+        return validator.validate(customerDto);
+    }
+}
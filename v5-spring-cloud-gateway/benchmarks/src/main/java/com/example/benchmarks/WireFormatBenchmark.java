@@ -0,0 +1,99 @@
+package com.example.benchmarks;
+
+import com.example.cards.dto.CardsDto;
+import com.example.cards.mapper.CardsMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The accounts to cards wire format: JSON against Smile, each with and without gzip, for a
+ * single {@code /api/fetch} response and a {@code /api/fetchBulk} response. Encoding is the
+ * cards side, decoding the accounts side. Payload sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"1", "100"})
+    private int records;
+
+    private ObjectMapper objectMapper;
+    private JavaType accountsSideType;
+    private Object response;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = "smile".equals(format)
+                ? Jackson2ObjectMapperBuilder.smile()
+                : Jackson2ObjectMapperBuilder.json();
+        objectMapper = builder.build();
+        List<CardsDto> cardsDtos = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            CardsDto cardsDto = CardsMapper.mapToCardsDto(Fixtures.cards(), new CardsDto());
+            cardsDto.setMobileNumber(String.valueOf(4354437000L + i));
+            cardsDto.setCardNumber(String.valueOf(100646930000L + i));
+            cardsDtos.add(cardsDto);
+        }
+        if (records == 1) {
+            response = cardsDtos.get(0);
+            accountsSideType = objectMapper.constructType(com.example.accounts.dto.CardsDto.class);
+        } else {
+            response = cardsDtos;
+            accountsSideType = objectMapper.getTypeFactory()
+                    .constructCollectionType(List.class, com.example.accounts.dto.CardsDto.class);
+        }
+        payload = encode();
+        System.out.printf("%n%s%s, %d record(s): %d bytes%n", format, gzip ? "+gzip" : "", records, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(out, response);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        InputStream in = new ByteArrayInputStream(payload);
+        try (InputStream body = gzip ? new GZIPInputStream(in) : in) {
+            return objectMapper.readValue(body, accountsSideType);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.cards;
 
+import com.example.cards.config.JdbcMonitoringProperties;
+import com.example.cards.config.ReadReplicaProperties;
+import com.example.cards.config.SecondLevelCacheProperties;
+import com.example.cards.config.ShardingProperties;
 import com.example.cards.dto.CardsContactInfoDto;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
@@ -13,7 +17,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {CardsContactInfoDto.class})
+@EnableConfigurationProperties(value = {CardsContactInfoDto.class, JdbcMonitoringProperties.class,
+		ReadReplicaProperties.class, SecondLevelCacheProperties.class, ShardingProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Cards microservice REST API Documentation",
@@ -0,0 +1,109 @@
+package com.example.cards.config;
+
+import com.example.cards.jdbc.JdbcMetricsListener;
+import com.example.cards.jdbc.RepositoryMethodInterceptor;
+import com.example.cards.jdbc.SlowQueriesEndpoint;
+import com.example.cards.jdbc.SlowQueryLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Times every JDBC statement through a datasource-proxy layer around the connection pool.
+ * <p>
+ * Statements are published as {@code jdbc.query} and {@code jdbc.query.rows}, and the wait for a
+ * pooled connection as {@code jdbc.connection.acquire}, all tagged with the repository method
+ * that was running on the thread and the pool that served it. Statements over the slow query
+ * threshold are also logged and kept for the {@code slowqueries} actuator endpoint; below it
+ * nothing is formatted or logged, which is why {@code show-sql} is off.
+ */
+@Configuration(proxyBeanMethods = false)
+public class JdbcMonitoringConfig {
+
+    /**
+     * Name the application's own pool is published under.
+     */
+    public static final String PRIMARY = "primary";
+
+    @Bean
+    SlowQueryLog slowQueryLog(JdbcMonitoringProperties properties) {
+        return new SlowQueryLog(properties.getSlowQueryThreshold(), properties.getSlowQueryLogSize());
+    }
+
+    @Bean
+    JdbcMetricsListener jdbcMetricsListener(MeterRegistry meterRegistry, SlowQueryLog slowQueryLog) {
+        return new JdbcMetricsListener(meterRegistry, slowQueryLog);
+    }
+
+    @Bean
+    SlowQueriesEndpoint slowQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueriesEndpoint(slowQueryLog);
+    }
+
+    @Bean
+    static DataSourceProxyPostProcessor jdbcMonitoringDataSourceProxy(ObjectProvider<JdbcMetricsListener> listener) {
+        return new DataSourceProxyPostProcessor(listener);
+    }
+
+    @Bean
+    static BeanPostProcessor repositoryMethodTagging() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                                    // ahead of the transaction advice, so the connection it takes is tagged too
+                                    proxyFactory.addAdvice(0, new RepositoryMethodInterceptor(
+                                            repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * @return the pool behind a proxy reporting to the listener under the given name
+     */
+    public static DataSource monitored(String name, DataSource dataSource, JdbcMetricsListener listener) {
+        return ProxyDataSourceBuilder.create(name, dataSource)
+                .listener(listener)
+                // lets the listener count the rows read from each result set
+                .proxyResultSet()
+                .build();
+    }
+
+    /**
+     * Ordered, so it runs before the unordered post-processors and the proxy goes directly around
+     * the pool, inside anything else that wraps the data source.
+     */
+    static class DataSourceProxyPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<JdbcMetricsListener> listener;
+
+        DataSourceProxyPostProcessor(ObjectProvider<JdbcMetricsListener> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                return monitored(PRIMARY, dataSource, listener.getObject());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
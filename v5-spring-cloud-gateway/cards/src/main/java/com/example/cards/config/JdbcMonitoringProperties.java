@@ -0,0 +1,21 @@
+package com.example.cards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * When a statement counts as slow, and how many of the slowest statements are kept
+ * for the {@code slowqueries} actuator endpoint.
+ */
+@ConfigurationProperties(prefix = "cards.jdbc-monitoring")
+@Getter
+@Setter
+public class JdbcMonitoringProperties {
+
+    private Duration slowQueryThreshold = Duration.ofMillis(100);
+
+    private int slowQueryLogSize = 100;
+}
@@ -0,0 +1,33 @@
+package com.example.cards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size and time to live of each Hibernate second-level cache region, keyed by region name.
+ * Every region Hibernate uses must be listed: the entity regions named in {@code @Cache}, plus
+ * {@code default-query-results-region} and {@code default-update-timestamps-region} for the
+ * query cache.
+ */
+@ConfigurationProperties(prefix = "cards.second-level-cache")
+@Getter
+@Setter
+public class SecondLevelCacheProperties {
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Region {
+
+        private long maximumSize = 10_000;
+
+        // unset keeps entries until they are evicted for size
+        private Duration timeToLive;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.cards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shards the cards are spread over by consistent hash of the mobile number. The application's
+ * own data source is the home shard, named {@code primary}; the others are keyed by a name used
+ * for the ring, the pool and its metrics.
+ * <p>
+ * To change the ring, list the new shards in {@code ring} and the current ones in
+ * {@code previous-ring} on every instance, then POST {@code /actuator/shards} to move the rows;
+ * once it reports nothing left to move, {@code previous-ring} can be emptied again.
+ */
+@ConfigurationProperties(prefix = "cards.sharding")
+@Getter
+@Setter
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    private int virtualNodes = 128;
+
+    // empty puts the home shard and every shard below on the ring
+    private List<String> ring = new ArrayList<>();
+
+    private List<String> previousRing = new ArrayList<>();
+
+    // bounds the connections one scatter-gather read holds at a time
+    private int scatterPoolSize = 8;
+
+    private int rebalanceBatchSize = 500;
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        // unset lets the pool find the driver from the url
+        private String driverClassName;
+
+        private int maximumPoolSize = 10;
+
+        // which 2^40 ids the shard's sequences hand out; distinct and above 0, the home shard's range
+        private int idRange;
+    }
+}
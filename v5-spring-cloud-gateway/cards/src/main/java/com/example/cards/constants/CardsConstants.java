@@ -8,10 +8,15 @@ public final class CardsConstants {
 
     public static final String  CREDIT_CARD = "Credit Card";
     public static final int  NEW_CARD_LIMIT = 1_00_000;
+    public static final int  MAX_BULK_FETCH_SIZE = 5_000;
+    public static final String  CARDS_CACHE_REGION = "cards";
+    public static final String  APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final int  NUMBER_BLOCK_SIZE = 100;
     public static final String  STATUS_201 = "201";
     public static final String  MESSAGE_201 = "Card created successfully";
     public static final String  STATUS_200 = "200";
     public static final String  MESSAGE_200 = "Request processed successfully";
+    public static final String  MESSAGE_409 = "Card was changed by another request. Fetch it again and retry the update";
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
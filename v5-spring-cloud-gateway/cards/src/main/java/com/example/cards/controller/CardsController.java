@@ -14,6 +14,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -26,6 +27,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * @author Eazy Bytes
  */
@@ -86,6 +89,10 @@ public class CardsController {
                     responseCode = "200",
                     description = "HTTP Status OK"
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Card unchanged since the version in If-None-Match"
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -94,14 +101,45 @@ public class CardsController {
                     )
             )
     })
-    @GetMapping("/fetch")
+    @GetMapping(value = "/fetch", produces = {MediaType.APPLICATION_JSON_VALUE, CardsConstants.APPLICATION_SMILE_VALUE})
     public ResponseEntity<CardsDto> fetchCardDetails(
             @RequestHeader("mybank-correlation-id") String correlationId,
             @RequestParam @Pattern(regexp="(^$|[0-9]{10})",
                     message = "Mobile number must be 10 digits") String mobileNumber) {
         logger.debug("MyBank correlation id found: {}", correlationId);
         CardsDto cardsDto = cardsService.fetchCard(mobileNumber);
-        return ResponseEntity.status(HttpStatus.OK).body(cardsDto);
+        // the card is read from the second-level cache; a new card gets a new number, so number and
+        // version identify this exact state
+        return ETags.ok(cardsDto.getCardNumber(), cardsDto.getVersion()).body(cardsDto);
+    }
+
+    @Operation(
+            summary = "Fetch Card Details In Bulk REST API",
+            description = "REST API to fetch card details for a batch of mobile numbers in one round trip"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping(value = "/fetchBulk", produces = {MediaType.APPLICATION_JSON_VALUE, CardsConstants.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<CardsDto>> fetchCardDetailsBulk(
+            @RequestHeader("mybank-correlation-id") String correlationId,
+            @RequestBody @Size(max = CardsConstants.MAX_BULK_FETCH_SIZE,
+                    message = "At most " + CardsConstants.MAX_BULK_FETCH_SIZE + " mobile numbers per request")
+            List<@Pattern(regexp="(^$|[0-9]{10})", message = "Mobile number must be 10 digits") String> mobileNumbers) {
+        logger.debug("MyBank correlation id found: {}", correlationId);
+        List<CardsDto> cardsDtos = cardsService.fetchCards(mobileNumbers);
+        return ResponseEntity.status(HttpStatus.OK).body(cardsDtos);
     }
 
     @Operation(
@@ -113,6 +151,13 @@ public class CardsController {
                     responseCode = "200",
                     description = "HTTP Status OK"
             ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Changed since it was fetched",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "417",
                     description = "Expectation Failed"
@@ -3,6 +3,7 @@ package com.example.cards.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -35,4 +36,8 @@ public class BaseEntity {
     @Column(insertable = false)
     private String updatedBy;
 
+    // every update is conditional on it: "update ... where id=? and version=?"
+    @Version
+    private Long version;
+
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.example.cards.entity;
 
+import com.example.cards.constants.CardsConstants;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Getter
@@ -9,10 +12,13 @@ import lombok.*;
 @ToString
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_cards_mobile_number", columnNames = "mobile_number"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CardsConstants.CARDS_CACHE_REGION)
 public class Cards extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long cardId;
 
     private String mobileNumber;
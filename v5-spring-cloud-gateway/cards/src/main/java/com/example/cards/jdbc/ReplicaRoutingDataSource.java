@@ -0,0 +1,216 @@
+package com.example.cards.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the statements of read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * A connection is only taken from a pool when its first statement runs, by which time the
+ * transaction and its read-only flag are known. Replicas are used round robin among those whose
+ * last lag check found them no further behind than the maximum lag; when there is none, or a
+ * replica refuses a connection, the read goes to the primary. Reads inside a read-write
+ * transaction always stay on the primary, so a transaction sees its own writes.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final Router router;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    Duration checkInterval, String lagQuery, MeterRegistry meterRegistry) {
+        super(new Router(primary, replicas, maxLag, lagQuery, meterRegistry));
+        this.router = (Router) obtainTargetDataSource();
+        router.start(checkInterval);
+    }
+
+    /**
+     * Checks the lag of every replica now, rather than at the next scheduled check.
+     */
+    public void checkReplicas() {
+        router.checkReplicas();
+    }
+
+    /**
+     * Stops the lag checks and closes the primary and replica pools.
+     */
+    @Override
+    public void close() {
+        router.close();
+    }
+
+    private static final class Router extends AbstractDataSource {
+
+        private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+        private final DataSource primary;
+        private final List<Replica> replicas = new ArrayList<>();
+        private final double maxLagSeconds;
+        private final String lagQuery;
+        private final Counter fallbacks;
+        private final AtomicInteger next = new AtomicInteger();
+        private final ScheduledExecutorService lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private Router(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, String lagQuery,
+                       MeterRegistry meterRegistry) {
+            this.primary = primary;
+            this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+            this.lagQuery = lagQuery;
+            this.fallbacks = Counter.builder("jdbc.replica.fallback")
+                    .description("Read-only connections taken from the primary because no replica was usable")
+                    .register(meterRegistry);
+            replicas.forEach((name, dataSource) -> {
+                Replica replica = new Replica(name, dataSource);
+                this.replicas.add(replica);
+                Gauge.builder("jdbc.replica.lag", replica, r -> r.lagSeconds)
+                        .description("Replication lag found by the last check, NaN when it failed")
+                        .baseUnit("seconds")
+                        .tag("replica", name)
+                        .register(meterRegistry);
+                Gauge.builder("jdbc.replica.available", replica, r -> r.available ? 1 : 0)
+                        .description("Whether the replica takes reads")
+                        .tag("replica", name)
+                        .register(meterRegistry);
+            });
+        }
+
+        private void start(Duration checkInterval) {
+            // replicas take no reads until their first check has passed
+            lagChecker.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+                return primary.getConnection();
+            }
+            int first = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((first + i) % replicas.size());
+                if (replica.available) {
+                    try {
+                        return replica.dataSource.getConnection();
+                    } catch (SQLException ex) {
+                        // out of rotation until the next check finds it usable again
+                        replica.available = false;
+                        logger.warn("Replica {} refused a connection, reading elsewhere", replica.name, ex);
+                    }
+                }
+            }
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+
+        private synchronized void checkReplicas() {
+            for (Replica replica : replicas) {
+                double lag = Double.NaN;
+                try (Connection connection = replica.dataSource.getConnection();
+                     Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    // no row means the server is not replicating, which leaves the lag unknown
+                    if (resultSet.next()) {
+                        lag = lagSeconds(resultSet);
+                    }
+                } catch (SQLException | RuntimeException ex) {
+                    logger.debug("Lag check of replica {} failed", replica.name, ex);
+                }
+                replica.lagSeconds = lag;
+                boolean available = lag <= maxLagSeconds;
+                if (available != replica.available) {
+                    if (available) {
+                        logger.info("Replica {} is {} s behind, taking reads", replica.name, lag);
+                    } else if (Double.isNaN(lag)) {
+                        logger.warn("Replica {} could not be checked, reads go elsewhere", replica.name);
+                    } else {
+                        logger.warn("Replica {} is {} s behind, reads go elsewhere", replica.name, lag);
+                    }
+                }
+                replica.available = available;
+            }
+        }
+
+        private static double lagSeconds(ResultSet resultSet) throws SQLException {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            int column = 1;
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                String label = metaData.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                    column = i;
+                    break;
+                }
+            }
+            double lag = resultSet.getDouble(column);
+            // MySQL reports NULL while the replication threads are stopped
+            return resultSet.wasNull() ? Double.NaN : lag;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.isWrapperFor(iface);
+        }
+
+        private void close() {
+            lagChecker.shutdownNow();
+            closeQuietly(primary);
+            replicas.forEach(replica -> closeQuietly(replica.dataSource));
+        }
+
+        private static void closeQuietly(DataSource dataSource) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    logger.debug("Closing data source failed", ex);
+                }
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile double lagSeconds = Double.NaN;
+        private volatile boolean available;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
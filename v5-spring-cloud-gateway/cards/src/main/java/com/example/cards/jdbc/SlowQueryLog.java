@@ -0,0 +1,80 @@
+package com.example.cards.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The slowest statements that took longer than the threshold, in a bounded min-heap: once it is
+ * full, a slow statement replaces the fastest one kept, if it took longer. Every slow statement
+ * is logged whether it is kept or not.
+ * <p>
+ * Only slow statements take the lock, so the statements the log exists for are the only ones
+ * that wait on it.
+ */
+public class SlowQueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final Comparator<SlowQuery> FASTEST_FIRST = Comparator.comparingDouble(SlowQuery::elapsedMillis);
+
+    private final long thresholdNanos;
+    private final int size;
+    private final PriorityQueue<SlowQuery> entries;
+
+    public SlowQueryLog(Duration threshold, int size) {
+        this.thresholdNanos = threshold.toNanos();
+        this.size = Math.max(1, size);
+        this.entries = new PriorityQueue<>(this.size, FASTEST_FIRST);
+    }
+
+    /**
+     * @return whether a statement that took this long is to be recorded
+     */
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    public void record(SlowQuery slowQuery) {
+        synchronized (entries) {
+            if (entries.size() < size) {
+                entries.add(slowQuery);
+            } else if (entries.peek().elapsedMillis() < slowQuery.elapsedMillis()) {
+                entries.poll();
+                entries.add(slowQuery);
+            }
+        }
+        logger.warn("Slow {} in {} on {} took {} ms: {}", slowQuery.type(), slowQuery.repositoryMethod(),
+                slowQuery.dataSource(), slowQuery.elapsedMillis(), slowQuery.sql());
+    }
+
+    /**
+     * @return the statements kept, slowest first
+     */
+    public List<SlowQuery> slowest() {
+        List<SlowQuery> slowQueries;
+        synchronized (entries) {
+            slowQueries = new ArrayList<>(entries);
+        }
+        slowQueries.sort(FASTEST_FIRST.reversed());
+        return slowQueries;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * A slow statement. For a batch, {@code batchSize} is the number of parameter sets sent with it.
+     */
+    public record SlowQuery(Instant timestamp, String dataSource, String repositoryMethod, String type,
+                            double elapsedMillis, int batchSize, boolean success, String sql) {
+    }
+}
@@ -12,6 +12,7 @@ public class CardsMapper {
         cardsDto.setTotalLimit(cards.getTotalLimit());
         cardsDto.setAvailableAmount(cards.getAvailableAmount());
         cardsDto.setAmountUsed(cards.getAmountUsed());
+        cardsDto.setVersion(cards.getVersion());
         return cardsDto;
     }
 
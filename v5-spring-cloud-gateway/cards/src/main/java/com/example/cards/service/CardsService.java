@@ -2,6 +2,8 @@ package com.example.cards.service;
 
 import com.example.cards.dto.CardsDto;
 
+import java.util.List;
+
 public interface CardsService {
 
     /**
@@ -17,6 +19,13 @@ public interface CardsService {
      */
     CardsDto fetchCard(String mobileNumber);
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Card Details of every given mobileNumber that has one, fetched with a single query
+     */
+    List<CardsDto> fetchCards(List<String> mobileNumbers);
+
     /**
      *
      * @param cardsDto - CardsDto Object
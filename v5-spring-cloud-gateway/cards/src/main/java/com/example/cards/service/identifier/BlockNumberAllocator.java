@@ -0,0 +1,85 @@
+package com.example.cards.service.identifier;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hi/lo allocator for business numbers such as card numbers.
+ * <p>
+ * A block of {@code blockSize} sequence values is claimed from the {@link NumberBlockSource}
+ * and handed out with a single {@code getAndIncrement}, so only the thread that finds the
+ * block exhausted goes to the database. Sequence values are spread over
+ * {@code [base, base + range)} by multiplying with a constant coprime to the range, which is
+ * a bijection: numbers never collide but consecutive customers do not get consecutive numbers.
+ */
+public class BlockNumberAllocator {
+
+    // coprime to every 9 * 10^n range; small enough that seq * MULTIPLIER cannot overflow below 10^12
+    static final long MULTIPLIER = 7_654_321L;
+
+    private final NumberBlockSource blockSource;
+    private final String name;
+    private final int blockSize;
+    private final long base;
+    private final long range;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block block = new Block(0, 0);
+
+    public BlockNumberAllocator(NumberBlockSource blockSource, String name, int blockSize, long base, long range) {
+        if (range > 1_000_000_000_000L
+                || !BigInteger.valueOf(range).gcd(BigInteger.valueOf(MULTIPLIER)).equals(BigInteger.ONE)) {
+            throw new IllegalArgumentException("Unsupported range " + range + " for " + name);
+        }
+        this.blockSource = blockSource;
+        this.name = name;
+        this.blockSize = blockSize;
+        this.base = base;
+        this.range = range;
+    }
+
+    /**
+     * @return the next number, unique across all instances sharing the {@code number_block} table
+     */
+    public long next() {
+        while (true) {
+            Block current = block;
+            long seq = current.next.getAndIncrement();
+            if (seq < current.end) {
+                return scramble(seq);
+            }
+            refill(current);
+        }
+    }
+
+    private long scramble(long seq) {
+        if (seq >= range) {
+            throw new IllegalStateException("Number space " + name + " is exhausted");
+        }
+        return base + (seq * MULTIPLIER) % range;
+    }
+
+    private void refill(Block exhausted) {
+        // a lock rather than synchronized so a virtual thread waiting on the database does not pin its carrier
+        refillLock.lock();
+        try {
+            if (block == exhausted) {
+                long hi = blockSource.nextHi(name);
+                block = new Block(hi * blockSize, (hi + 1) * blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.cards.service.identifier;
+
+import com.example.cards.constants.CardsConstants;
+import org.springframework.stereotype.Component;
+
+/**
+ * Allocates twelve-digit card numbers: an eleven-digit allocated body followed by a Luhn check digit.
+ */
+@Component
+public class CardNumberAllocator extends BlockNumberAllocator {
+
+    public CardNumberAllocator(NumberBlockSource blockSource) {
+        super(blockSource, "card_number", CardsConstants.NUMBER_BLOCK_SIZE, 10_000_000_000L, 90_000_000_000L);
+    }
+
+    public String nextCardNumber() {
+        long body = next();
+        return Long.toString(body * 10 + luhnCheckDigit(body));
+    }
+
+    /**
+     * @param body - Card number without its check digit
+     * @return the digit that makes {@code body} followed by it pass the Luhn check
+     */
+    static int luhnCheckDigit(long body) {
+        int sum = 0;
+        boolean doubled = true;
+        for (long rest = body; rest > 0; rest /= 10) {
+            int digit = (int) (rest % 10);
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.cards.service.identifier;
+
+/**
+ * Hands out the high part of a hi/lo number block. Every call must return a value no other
+ * caller, in this or any other instance, has received for the same name.
+ */
+public interface NumberBlockSource {
+
+    /**
+     * @param name - Name of the number space, e.g. {@code card_number}
+     * @return the next unused block index for that space, starting at 0
+     */
+    long nextHi(String name);
+}
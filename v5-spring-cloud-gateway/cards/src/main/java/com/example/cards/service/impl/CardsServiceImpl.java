@@ -8,28 +8,57 @@ import com.example.cards.exception.ResourceNotFoundException;
 import com.example.cards.mapper.CardsMapper;
 import com.example.cards.repository.CardsRepository;
 import com.example.cards.service.CardsService;
-import lombok.AllArgsConstructor;
+import com.example.cards.service.identifier.CardNumberAllocator;
+import com.example.cards.sharding.ShardRouter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
-import java.util.Random;
+import java.util.List;
+import java.util.Objects;
 
 @Service
-@AllArgsConstructor
 public class CardsServiceImpl implements CardsService {
 
     private CardsRepository cardsRepository;
+    private CardNumberAllocator cardNumberAllocator;
+    private ShardRouter shardRouter;
+    private TransactionTemplate transaction;
+
+    public CardsServiceImpl(CardsRepository cardsRepository, CardNumberAllocator cardNumberAllocator,
+                            ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.cardsRepository = cardsRepository;
+        this.cardNumberAllocator = cardNumberAllocator;
+        this.shardRouter = shardRouter;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * @param mobileNumber - Mobile Number of the Customer
      */
     @Override
     public void createCard(String mobileNumber) {
-        Optional<Cards> optionalCards= cardsRepository.findByMobileNumber(mobileNumber);
-        if(optionalCards.isPresent()){
+        // built outside any transaction: a new block of numbers takes a connection of its own, and
+        // parallel creates each holding one while they wait for it could exhaust the pool
+        Cards newCard = createNewCard(mobileNumber);
+        try {
+            // the unique constraint on mobile_number is the duplicate check
+            shardRouter.onShardOf(mobileNumber, () -> cardsRepository.saveAndFlush(newCard));
+        } catch (DataIntegrityViolationException ex) {
+            if (!isUniqueViolation(ex)) {
+                throw ex;
+            }
             throw new CardAlreadyExistsException("Card already registered with given mobileNumber "+mobileNumber);
         }
-        cardsRepository.save(createNewCard(mobileNumber));
+    }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException ex) {
+        return ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
     }
 
     /**
@@ -38,8 +67,7 @@ public class CardsServiceImpl implements CardsService {
      */
     private Cards createNewCard(String mobileNumber) {
         Cards newCard = new Cards();
-        long randomCardNumber = 100000000000L + new Random().nextInt(900000000);
-        newCard.setCardNumber(Long.toString(randomCardNumber));
+        newCard.setCardNumber(cardNumberAllocator.nextCardNumber());
         newCard.setMobileNumber(mobileNumber);
         newCard.setCardType(CardsConstants.CREDIT_CARD);
         newCard.setTotalLimit(CardsConstants.NEW_CARD_LIMIT);
@@ -54,13 +82,27 @@ public class CardsServiceImpl implements CardsService {
      * @return Card Details based on a given mobileNumber
      */
     @Override
+    // not read-only: what this reads fills the query cache, so it must not come from a lagging replica
+    @Transactional
     public CardsDto fetchCard(String mobileNumber) {
-        Cards cards = cardsRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
-        );
+        Cards cards = shardRouter.onShardOf(mobileNumber, () -> cardsRepository.findByMobileNumber(mobileNumber))
+                .orElseThrow(() -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber));
         return CardsMapper.mapToCardsDto(cards, new CardsDto());
     }
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Card Details of every given mobileNumber that has one, fetched with a single query per shard
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CardsDto> fetchCards(List<String> mobileNumbers) {
+        return shardRouter.onShardsOf(mobileNumbers, cardsRepository::findByMobileNumberIn).stream()
+                .map(cards -> CardsMapper.mapToCardsDto(cards, new CardsDto()))
+                .toList();
+    }
+
     /**
      *
      * @param cardsDto - CardsDto Object
@@ -68,11 +110,21 @@ public class CardsServiceImpl implements CardsService {
      */
     @Override
     public boolean updateCard(CardsDto cardsDto) {
-        Cards cards = cardsRepository.findByCardNumber(cardsDto.getCardNumber()).orElseThrow(
-                () -> new ResourceNotFoundException("Card", "CardNumber", cardsDto.getCardNumber()));
-        CardsMapper.mapToCards(cardsDto, cards);
-        cardsRepository.save(cards);
-        return  true;
+        // the card is looked for on the shard of the mobile number given: as the shard key, a card
+        // cannot be moved to a number that lives on another shard. The shard is bound before the
+        // transaction starts, so the update flushed at commit goes to it too
+        return shardRouter.onShardOf(cardsDto.getMobileNumber(), () -> transaction.execute(status -> {
+            // the row normally comes from the second-level cache, so the versioned update at commit
+            // is the only statement sent
+            Cards cards = cardsRepository.findByCardNumber(cardsDto.getCardNumber()).orElseThrow(
+                    () -> new ResourceNotFoundException("Card", "CardNumber", cardsDto.getCardNumber()));
+            if (!Objects.equals(cards.getVersion(), cardsDto.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Cards.class, cards.getCardId());
+            }
+            CardsMapper.mapToCards(cardsDto, cards);
+            cardsRepository.save(cards);
+            return  true;
+        }));
     }
 
     /**
@@ -81,11 +133,13 @@ public class CardsServiceImpl implements CardsService {
      */
     @Override
     public boolean deleteCard(String mobileNumber) {
-        Cards cards = cardsRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
-        );
-        cardsRepository.deleteById(cards.getCardId());
-        return true;
+        return shardRouter.onShardOf(mobileNumber, () -> transaction.execute(status -> {
+            Cards cards = cardsRepository.findByMobileNumber(mobileNumber).orElseThrow(
+                    () -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
+            );
+            cardsRepository.deleteById(cards.getCardId());
+            return true;
+        }));
     }
 
 
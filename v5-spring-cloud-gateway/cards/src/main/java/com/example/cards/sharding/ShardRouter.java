@@ -0,0 +1,219 @@
+package com.example.cards.sharding;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard a mobile number's rows live on and runs work there.
+ * <p>
+ * Work runs with its shard bound to the thread, which {@link ShardRoutingDataSource} sends every
+ * connection to. A transaction runs on a single shard: the shard has to be bound before its
+ * first statement, and stays fixed for the rest of it. Work on several shards runs in parallel,
+ * one task per shard on a bounded pool, each with its own transactions.
+ * <p>
+ * While the ring is being changed the previous ring is kept as well. Rows of a number whose shard
+ * differs between the two are moved by the {@link ShardRebalancer} before any work on them runs,
+ * so requests see them in their new place whether or not the rebalancer has got to them yet.
+ * <p>
+ * Unsharded, there is only the home shard and all work runs directly on the calling thread.
+ */
+public class ShardRouter implements DisposableBean {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final String home;
+    private final ConsistentHashRing ring;
+    private final ConsistentHashRing previousRing;
+    private final ShardRebalancer rebalancer;
+    private final List<String> shards;
+    private final ThreadPoolTaskExecutor executor;
+
+    /**
+     * A router for a single, unsharded database.
+     */
+    public ShardRouter(String home) {
+        this(home, new ConsistentHashRing(List.of(home), 1), null, null, 0);
+    }
+
+    /**
+     * @param previousRing the ring being moved away from, or {@code null} when the ring is settled
+     */
+    public ShardRouter(String home, ConsistentHashRing ring, ConsistentHashRing previousRing,
+                       ShardRebalancer rebalancer, int scatterPoolSize) {
+        this.home = home;
+        this.ring = ring;
+        this.previousRing = previousRing;
+        this.rebalancer = rebalancer;
+        LinkedHashSet<String> withRows = new LinkedHashSet<>(ring.shards());
+        if (previousRing != null) {
+            withRows.addAll(previousRing.shards());
+        }
+        this.shards = List.copyOf(withRows);
+        this.executor = shards.size() > 1 ? scatterExecutor(scatterPoolSize) : null;
+    }
+
+    private static ThreadPoolTaskExecutor scatterExecutor(int poolSize) {
+        // no caller-runs policy: the caller's persistence context must not see another shard's rows
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("shard-scatter-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * @return the shard bound to the current thread, or {@code null} for the home shard
+     */
+    static String currentShard() {
+        return CURRENT.get();
+    }
+
+    public boolean isSharded() {
+        return shards.size() > 1;
+    }
+
+    public ConsistentHashRing ring() {
+        return ring;
+    }
+
+    /**
+     * @return the ring being moved away from, or {@code null} when the ring is settled
+     */
+    public ConsistentHashRing previousRing() {
+        return previousRing;
+    }
+
+    /**
+     * @return every shard that can hold rows: those on the ring and, while it changes, the previous ring
+     */
+    public List<String> shards() {
+        return shards;
+    }
+
+    /**
+     * @return the shard the ring puts the mobile number on
+     */
+    public String shardOf(String mobileNumber) {
+        return ring.shardOf(mobileNumber);
+    }
+
+    /**
+     * Runs the work on the mobile number's shard.
+     */
+    public <T> T onShardOf(String mobileNumber, Supplier<T> work) {
+        return onShard(ownerOf(mobileNumber), work);
+    }
+
+    /**
+     * Runs the work on the home shard, which holds the tables that are not sharded.
+     */
+    public <T> T onHomeShard(Supplier<T> work) {
+        return onShard(home, work);
+    }
+
+    /**
+     * Runs the work on the given shard. The binding it replaces is restored afterwards, so this
+     * can be nested.
+     */
+    public <T> T onShard(String shard, Supplier<T> work) {
+        if (!isSharded()) {
+            return work.get();
+        }
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return the items grouped by the shard of their mobile number, in the order first seen
+     */
+    public <T> Map<String, List<T>> groupByShard(Collection<T> items, Function<T, String> mobileNumber) {
+        Map<String, List<T>> byShard = new LinkedHashMap<>();
+        for (T item : items) {
+            byShard.computeIfAbsent(ownerOf(mobileNumber.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return byShard;
+    }
+
+    /**
+     * Runs the work once per shard on the mobile numbers that live there, in parallel when there
+     * is more than one, and concatenates the results.
+     */
+    public <T> List<T> onShardsOf(Collection<String> mobileNumbers, Function<List<String>, List<T>> work) {
+        Map<String, Supplier<List<T>>> tasks = new LinkedHashMap<>();
+        groupByShard(mobileNumbers, Function.identity())
+                .forEach((shard, shardNumbers) -> tasks.put(shard, () -> work.apply(shardNumbers)));
+        List<T> results = new ArrayList<>();
+        inParallel(tasks).values().forEach(results::addAll);
+        return results;
+    }
+
+    /**
+     * Runs the work on every shard that can hold rows, in parallel.
+     *
+     * @return each shard's result, keyed by shard name
+     */
+    public <T> Map<String, T> onEveryShard(Supplier<T> work) {
+        Map<String, Supplier<T>> tasks = new LinkedHashMap<>();
+        shards.forEach(shard -> tasks.put(shard, work));
+        return inParallel(tasks);
+    }
+
+    private <T> Map<String, T> inParallel(Map<String, Supplier<T>> tasks) {
+        Map<String, T> results = new LinkedHashMap<>();
+        if (tasks.size() <= 1) {
+            tasks.forEach((shard, task) -> results.put(shard, onShard(shard, task)));
+            return results;
+        }
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        tasks.forEach((shard, task) -> futures.put(shard,
+                CompletableFuture.supplyAsync(() -> onShard(shard, task), executor)));
+        try {
+            futures.forEach((shard, future) -> results.put(shard, future.join()));
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+    private String ownerOf(String mobileNumber) {
+        String owner = ring.shardOf(mobileNumber);
+        if (previousRing != null) {
+            String previousOwner = previousRing.shardOf(mobileNumber);
+            if (!previousOwner.equals(owner)) {
+                rebalancer.move(mobileNumber, previousOwner, owner);
+            }
+        }
+        return owner;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
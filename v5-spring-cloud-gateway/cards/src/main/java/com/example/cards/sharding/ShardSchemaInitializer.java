@@ -0,0 +1,138 @@
+package com.example.cards.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.SchemaToolingSettings;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Brings the schema of every shard other than home up to date, the way the application's own
+ * database is: the schema script first, then Hibernate's schema update.
+ * <p>
+ * It also keeps identifiers unique across shards. Every shard's sequences hand out values from
+ * a range of their own, {@code 2^40} wide and picked by the shard's {@code id-range}; home has
+ * range 0. A sequence still below its shard's range is restarted at the start of it, so
+ * a row keeps its id when it is moved, and Hibernate's pooled identifiers, which are shared
+ * by every shard, never repeat.
+ * <p>
+ * The mapping is captured from Hibernate as it builds the entity manager factory, and the
+ * shards are set up once every singleton exists, before the application takes requests.
+ */
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+
+    public static final int ID_RANGE_BITS = 40;
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    private final ShardRoutingDataSource dataSource;
+    private final Map<String, Integer> idRanges;
+    private final Resource schemaScript;
+    private final DatabaseInitializationMode scriptMode;
+    private final String schemaAction;
+    private volatile Metadata metadata;
+    private volatile Dialect dialect;
+
+    /**
+     * @param idRanges     each shard's id range
+     * @param schemaScript script run on each shard first, if it exists
+     * @param scriptMode   which shards the script is run on, as for the application's own database
+     * @param schemaAction Hibernate schema action then applied, or {@code null} for none
+     */
+    public ShardSchemaInitializer(ShardRoutingDataSource dataSource, Map<String, Integer> idRanges,
+                                  Resource schemaScript, DatabaseInitializationMode scriptMode, String schemaAction) {
+        this.dataSource = dataSource;
+        this.idRanges = idRanges;
+        this.schemaScript = schemaScript;
+        this.scriptMode = scriptMode;
+        this.schemaAction = schemaAction;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.dialect = sessionFactory.getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate has not started, the shards' schema is unknown");
+        }
+        dataSource.shards().forEach((shard, shardDataSource) -> {
+            if (!shard.equals(dataSource.home())) {
+                initialize(shard, shardDataSource);
+            }
+        });
+    }
+
+    private void initialize(String shard, DataSource shardDataSource) {
+        boolean runScript = scriptMode == DatabaseInitializationMode.ALWAYS
+                || (scriptMode == DatabaseInitializationMode.EMBEDDED && EmbeddedDatabaseConnection.isEmbedded(shardDataSource));
+        if (runScript && schemaScript.exists()) {
+            DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(schemaScript), shardDataSource);
+        }
+        if (schemaAction != null) {
+            Map<String, Object> settings = new HashMap<>();
+            settings.put(SchemaToolingSettings.HBM2DDL_AUTO, schemaAction);
+            StandardServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                    .applySetting(JdbcSettings.DATASOURCE, shardDataSource)
+                    .applySetting(JdbcSettings.DIALECT, dialect.getClass().getName())
+                    .build();
+            try {
+                SchemaManagementToolCoordinator.process(metadata, serviceRegistry, settings, action -> {
+                });
+            } finally {
+                StandardServiceRegistryBuilder.destroy(serviceRegistry);
+            }
+        }
+        placeSequences(shard, shardDataSource, idRanges.getOrDefault(shard, 0));
+    }
+
+    private void placeSequences(String shard, DataSource shardDataSource, int idRange) {
+        long first = (long) idRange << ID_RANGE_BITS;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shardDataSource);
+        for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+            for (Sequence sequence : namespace.getSequences()) {
+                String name = sequence.getName().getSequenceName().render(dialect);
+                // taking a value is the portable way to read a sequence; the gap it leaves is harmless
+                Long next = jdbcTemplate.queryForObject(
+                        dialect.getSequenceSupport().getSequenceNextValString(name), Long.class);
+                if (next == null || next < first) {
+                    // one increment in, so the first pooled block does not reach below the range
+                    long start = first + sequence.getIncrementSize();
+                    jdbcTemplate.execute("alter sequence " + name + " restart with " + start);
+                    logger.info("Sequence {} on shard {} restarted at {}", name, shard, start);
+                } else if (next >= first + (1L << ID_RANGE_BITS)) {
+                    logger.warn("Sequence {} on shard {} has run past id range {}", name, shard, idRange);
+                }
+            }
+        }
+    }
+}
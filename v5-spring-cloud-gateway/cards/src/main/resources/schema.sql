@@ -1,5 +1,7 @@
+CREATE SEQUENCE IF NOT EXISTS `cards_seq` START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS `cards` (
-   `card_id` int NOT NULL AUTO_INCREMENT,
+   `card_id` bigint NOT NULL,
    `mobile_number` varchar(15) NOT NULL,
     `card_number` varchar(100) NOT NULL,
     `card_type` varchar(100) NOT NULL,
@@ -10,5 +12,21 @@ CREATE TABLE IF NOT EXISTS `cards` (
     `created_by` varchar(20) NOT NULL,
     `updated_at` date DEFAULT NULL,
     `updated_by` varchar(20) DEFAULT NULL,
-    PRIMARY KEY (`card_id`)
-    );
\ No newline at end of file
+    `version` bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (`card_id`),
+    CONSTRAINT `uk_cards_mobile_number` UNIQUE (`mobile_number`)
+    );
+
+CREATE TABLE IF NOT EXISTS `number_block` (
+    `name` varchar(50) PRIMARY KEY,
+    `next_hi` bigint NOT NULL
+    );
+
+INSERT INTO `number_block` (`name`, `next_hi`)
+SELECT 'card_number', 0 WHERE NOT EXISTS (SELECT 1 FROM `number_block` WHERE `name` = 'card_number');
+
+-- tables created before rows were versioned, where ddl-auto may have added a nullable version
+ALTER TABLE `cards` ADD COLUMN IF NOT EXISTS `version` bigint NOT NULL DEFAULT 0;
+UPDATE `cards` SET `version` = 0 WHERE `version` IS NULL;
+ALTER TABLE `cards` ALTER COLUMN `version` SET DEFAULT 0;
+ALTER TABLE `cards` ALTER COLUMN `version` SET NOT NULL;
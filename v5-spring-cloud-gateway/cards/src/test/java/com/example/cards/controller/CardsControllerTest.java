@@ -0,0 +1,59 @@
+package com.example.cards.controller;
+
+import com.example.cards.constants.CardsConstants;
+import com.example.cards.service.CardsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CardsControllerTest {
+
+    private static final String MOBILE_NUMBER = "0955555555";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CardsService cardsService;
+
+    @Test
+    void jsonAndSmileShareAWeakTagAndVaryByAccept() throws Exception {
+        cardsService.createCard(MOBILE_NUMBER);
+        String eTag = mockMvc.perform(fetch(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(eTag.startsWith("W/\""), eTag);
+
+        mockMvc.perform(fetch(MediaType.valueOf(CardsConstants.APPLICATION_SMILE_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CardsConstants.APPLICATION_SMILE_VALUE))
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        mockMvc.perform(fetch(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    private static MockHttpServletRequestBuilder fetch(MediaType accept) {
+        return get("/api/fetch")
+                .param("mobileNumber", MOBILE_NUMBER)
+                .header("mybank-correlation-id", "test")
+                .accept(accept);
+    }
+}
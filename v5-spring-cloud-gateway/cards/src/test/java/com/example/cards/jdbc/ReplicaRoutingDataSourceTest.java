@@ -0,0 +1,97 @@
+package com.example.cards.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate routed;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        // two separate in-memory databases, each answering which one it is
+        primary = database("primary");
+        replica = database("replica");
+        replica.execute("create table replica_lag (seconds int)");
+        replica.update("insert into replica_lag values (0)");
+
+        routingDataSource = new ReplicaRoutingDataSource(primary.getDataSource(),
+                Map.of("replica1", replica.getDataSource()), Duration.ofSeconds(5), Duration.ofHours(1),
+                "select seconds from replica_lag", meterRegistry);
+        routingDataSource.checkReplicas();
+        routed = new JdbcTemplate(routingDataSource);
+        readWrite = new TransactionTemplate(new DataSourceTransactionManager(routingDataSource));
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(routingDataSource));
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        routingDataSource.close();
+        primary.execute("shutdown");
+        replica.execute("shutdown");
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> whoAnswers()));
+        assertEquals("primary", readWrite.execute(status -> whoAnswers()));
+        assertEquals("primary", whoAnswers());
+        assertEquals(0, meterRegistry.get("jdbc.replica.fallback").counter().count());
+    }
+
+    @Test
+    void lagBeyondTheMaximumSendsReadsToThePrimary() {
+        replica.update("update replica_lag set seconds = 30");
+        routingDataSource.checkReplicas();
+
+        assertEquals("primary", readOnly.execute(status -> whoAnswers()));
+        assertEquals(30, meterRegistry.get("jdbc.replica.lag").gauge().value());
+        assertEquals(1, meterRegistry.get("jdbc.replica.fallback").counter().count());
+
+        replica.update("update replica_lag set seconds = 1");
+        routingDataSource.checkReplicas();
+        assertEquals("replica", readOnly.execute(status -> whoAnswers()));
+    }
+
+    @Test
+    void replicaThatCannotBeCheckedGetsNoReads() {
+        replica.execute("drop table replica_lag");
+        routingDataSource.checkReplicas();
+
+        assertEquals("primary", readOnly.execute(status -> whoAnswers()));
+        assertEquals(0, meterRegistry.get("jdbc.replica.available").gauge().value());
+    }
+
+    private String whoAnswers() {
+        return routed.queryForObject("select name from whoami", String.class);
+    }
+
+    private static JdbcTemplate database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table whoami (name varchar(20))");
+        jdbcTemplate.update("insert into whoami values (?)", name);
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.cards.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ofMillis(100), 3);
+
+    @Test
+    void statementsFromTheThresholdOnAreSlow() {
+        assertFalse(slowQueryLog.isSlow(TimeUnit.MILLISECONDS.toNanos(100) - 1));
+        assertTrue(slowQueryLog.isSlow(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    void onlyTheSlowestStatementsAreKept() {
+        for (double elapsedMillis : new double[] {500, 100, 400, 200, 300, 150}) {
+            slowQueryLog.record(slowQuery(elapsedMillis));
+        }
+
+        assertEquals(List.of(500.0, 400.0, 300.0), elapsedMillis());
+    }
+
+    @Test
+    void aStatementNoSlowerThanTheFastestKeptIsDropped() {
+        slowQueryLog.record(slowQuery(300));
+        slowQueryLog.record(slowQuery(200));
+        slowQueryLog.record(slowQuery(400));
+
+        slowQueryLog.record(slowQuery(200));
+
+        assertEquals(List.of(400.0, 300.0, 200.0), elapsedMillis());
+        assertEquals("select 200.0", slowQueryLog.slowest().get(2).sql());
+    }
+
+    @Test
+    void clearEmptiesTheLog() {
+        slowQueryLog.record(slowQuery(300));
+
+        slowQueryLog.clear();
+
+        assertEquals(List.of(), slowQueryLog.slowest());
+        slowQueryLog.record(slowQuery(100));
+        assertEquals(List.of(100.0), elapsedMillis());
+    }
+
+    private List<Double> elapsedMillis() {
+        return slowQueryLog.slowest().stream().map(SlowQueryLog.SlowQuery::elapsedMillis).toList();
+    }
+
+    private static SlowQueryLog.SlowQuery slowQuery(double elapsedMillis) {
+        return new SlowQueryLog.SlowQuery(Instant.now(), "primary", RepositoryMethodInterceptor.NONE, "select",
+                elapsedMillis, 0, true, "select " + elapsedMillis);
+    }
+}
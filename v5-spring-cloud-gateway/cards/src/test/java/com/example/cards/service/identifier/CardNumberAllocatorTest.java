@@ -0,0 +1,67 @@
+package com.example.cards.service.identifier;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardNumberAllocatorTest {
+
+    @Test
+    void concurrentAllocationsAreUniqueAndLuhnValid() throws Exception {
+        AtomicLong hi = new AtomicLong();
+        CardNumberAllocator allocator = new CardNumberAllocator(name -> hi.getAndIncrement());
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 5_000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = IntStream.range(0, threads).<Callable<Void>>mapToObj(t -> () -> {
+                for (int i = 0; i < perThread; i++) {
+                    numbers.add(allocator.nextCardNumber());
+                }
+                return null;
+            }).toList();
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(threads * perThread, numbers.size());
+        for (String number : numbers) {
+            assertEquals(12, number.length(), number);
+            assertTrue(passesLuhn(number), number);
+        }
+    }
+
+    @Test
+    void checkDigitMatchesKnownNumber() {
+        // 79927398713 is the usual worked example of the Luhn algorithm
+        assertEquals(3, CardNumberAllocator.luhnCheckDigit(7992739871L));
+    }
+
+    private static boolean passesLuhn(String number) {
+        int sum = 0;
+        for (int i = 0; i < number.length(); i++) {
+            int digit = number.charAt(number.length() - 1 - i) - '0';
+            if (i % 2 == 1) {
+                digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+}
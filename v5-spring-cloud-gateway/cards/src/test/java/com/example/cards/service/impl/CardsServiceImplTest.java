@@ -0,0 +1,85 @@
+package com.example.cards.service.impl;
+
+import com.example.cards.dto.CardsDto;
+import com.example.cards.exception.CardAlreadyExistsException;
+import com.example.cards.service.CardsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CardsServiceImplTest {
+
+    private static final int CREATES = 16;
+
+    @Autowired
+    private CardsService cardsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelCreatesOfOneMobileNumberLeaveOneCard() throws Exception {
+        String mobileNumber = "0933333333";
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(CREATES);
+        List<Future<?>> creates = new ArrayList<>();
+        try {
+            for (int i = 0; i < CREATES; i++) {
+                creates.add(pool.submit(() -> {
+                    start.await();
+                    cardsService.createCard(mobileNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<?> create : creates) {
+                try {
+                    create.get();
+                    created++;
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(CardAlreadyExistsException.class, ex.getCause());
+                }
+            }
+            assertEquals(1, created);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from cards where mobile_number = ?", Integer.class, mobileNumber));
+    }
+
+    @Test
+    void aCardInsertedWithoutAVersionCanBeUpdated() {
+        String mobileNumber = "0944444444";
+        // as rows written before versioning, or by anything but this service, are
+        jdbcTemplate.update("insert into cards (card_id, mobile_number, card_number, card_type, total_limit, amount_used, available_amount, created_at, created_by) values (1000000, ?, '100000000001', 'Credit Card', 100000, 0, 100000, current_date, 'migration')", mobileNumber);
+        CardsDto cardsDto = cardsService.fetchCard(mobileNumber);
+        assertEquals(0L, cardsDto.getVersion());
+        cardsDto.setAmountUsed(1000);
+        cardsDto.setAvailableAmount(99000);
+
+        assertTrue(cardsService.updateCard(cardsDto));
+
+        assertEquals(1000, jdbcTemplate.queryForObject(
+                "select amount_used from cards where mobile_number = ?", Integer.class, mobileNumber));
+        assertEquals(1L, cardsService.fetchCard(mobileNumber).getVersion());
+        cardsService.deleteCard(mobileNumber);
+    }
+}
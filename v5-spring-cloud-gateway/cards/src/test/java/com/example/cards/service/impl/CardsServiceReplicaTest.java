@@ -0,0 +1,107 @@
+package com.example.cards.service.impl;
+
+import com.example.cards.dto.CardsDto;
+import com.example.cards.entity.Cards;
+import com.example.cards.jdbc.ReplicaRoutingDataSource;
+import com.example.cards.service.CardsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The replica is a database of its own that never receives the primary's writes, so it lags by
+ * as much as a test needs.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:lagging-primary",
+        "cards.read-replicas.enabled=true",
+        "cards.read-replicas.check-interval=1h",
+        "cards.read-replicas.lag-query=select seconds from replica_lag",
+        "cards.read-replicas.replicas.replica1.url=" + CardsServiceReplicaTest.REPLICA_URL,
+        "cards.read-replicas.replicas.replica1.username=sa",
+        "cards.read-replicas.replicas.replica1.password=password"})
+class CardsServiceReplicaTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private CardsService cardsService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate primary = new JdbcTemplate();
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "password"));
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // outside a transaction every statement goes to the primary
+        primary.setDataSource(dataSource);
+        replica.execute("drop all objects");
+        for (String statement : primary.queryForList("script nodata", String.class)) {
+            replica.execute(statement);
+        }
+        replica.execute("create table replica_lag (seconds int)");
+        replica.update("insert into replica_lag values (0)");
+        dataSource.unwrap(ReplicaRoutingDataSource.class).checkReplicas();
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.update("delete from cards");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void lookupsThatFillTheCacheReadThePrimary() {
+        cardsService.createCard("0911111111");
+        assertTrue(cardsService.fetchCards(List.of("0911111111")).isEmpty(), "the replica has not caught up");
+
+        CardsDto created = cardsService.fetchCard("0911111111");
+        created.setAmountUsed(100);
+        cardsService.updateCard(created);
+
+        assertEquals(1L, cardsService.fetchCard("0911111111").getVersion());
+        assertEquals(1L, cardsService.fetchCard("0911111111").getVersion());
+    }
+
+    @Test
+    void bulkReadsFromTheReplicaDoNotFeedTheEntityCache() {
+        cardsService.createCard("0922222222");
+        copyToReplica("0922222222");
+        CardsDto created = cardsService.fetchCard("0922222222");
+        created.setAmountUsed(100);
+        cardsService.updateCard(created);
+        // the cached query still names the card; its row has to be read again
+        assertEquals(1L, cardsService.fetchCard("0922222222").getVersion());
+        entityManagerFactory.getCache().evict(Cards.class);
+
+        assertEquals(0L, cardsService.fetchCards(List.of("0922222222")).get(0).getVersion());
+
+        assertEquals(1L, cardsService.fetchCard("0922222222").getVersion());
+    }
+
+    private void copyToReplica(String mobileNumber) {
+        Map<String, Object> row = primary.queryForMap("select * from cards where mobile_number = ?", mobileNumber);
+        String columns = String.join(", ", row.keySet());
+        String placeholders = String.join(", ", row.keySet().stream().map(column -> "?").toList());
+        replica.update("insert into cards (" + columns + ") values (" + placeholders + ")", row.values().toArray());
+    }
+}
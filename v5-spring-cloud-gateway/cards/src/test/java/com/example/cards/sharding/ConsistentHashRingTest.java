@@ -0,0 +1,60 @@
+package com.example.cards.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    void keysAreSpreadEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("primary", "shard1", "shard2"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.shardOf(mobileNumber(i)), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.forEach((shard, count) ->
+                assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 * 0.2, shard + " holds " + count + " keys"));
+    }
+
+    @Test
+    void addingAShardOnlyMovesKeysToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("primary", "shard1"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("primary", "shard1", "shard2"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = mobileNumber(i);
+            if (!before.shardOf(key).equals(after.shardOf(key))) {
+                assertEquals("shard2", after.shardOf(key));
+                moved++;
+            }
+        }
+
+        assertTrue(Math.abs(moved - KEYS / 3) < KEYS / 3 * 0.2, moved + " keys moved");
+    }
+
+    @Test
+    void everyInstanceAgreesOnTheShard() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("primary", "shard1", "shard2"), 128);
+        ConsistentHashRing sameShardsInAnotherOrder = new ConsistentHashRing(List.of("shard2", "primary", "shard1"), 128);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.shardOf(mobileNumber(i)), sameShardsInAnotherOrder.shardOf(mobileNumber(i)));
+        }
+    }
+
+    private static String mobileNumber(int i) {
+        return String.format("09%08d", i);
+    }
+}
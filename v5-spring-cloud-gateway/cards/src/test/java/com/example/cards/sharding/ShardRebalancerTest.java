@@ -0,0 +1,105 @@
+package com.example.cards.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRebalancerTest {
+
+    private static final ShardedRows CUSTOMERS = new ShardedRows("customer", "mobile_number", "customer_id",
+            Map.of("accounts", "customer_id"));
+
+    private final Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+    private final ConsistentHashRing ring = new ConsistentHashRing(List.of("primary", "shard1"), 128);
+    private ShardRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (String shard : List.of("primary", "shard1")) {
+            JdbcTemplate jdbcTemplate = database(shard);
+            shards.put(shard, jdbcTemplate);
+            dataSources.put(shard, jdbcTemplate.getDataSource());
+        }
+        rebalancer = new ShardRebalancer(CUSTOMERS, dataSources, ring, 7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.values().forEach(jdbcTemplate -> jdbcTemplate.execute("shutdown"));
+    }
+
+    @Test
+    void moveTakesTheRowAndItsChildrenWithTheirIds() {
+        insertCustomer("primary", 1, "0900000001");
+
+        assertTrue(rebalancer.move("0900000001", "primary", "shard1"));
+
+        assertEquals(0, count("primary", "customer"));
+        assertEquals(0, count("primary", "accounts"));
+        assertEquals(1L, shards.get("shard1").queryForObject(
+                "select customer_id from customer where mobile_number = '0900000001'", Long.class));
+        assertEquals(1001L, shards.get("shard1").queryForObject(
+                "select account_number from accounts where customer_id = 1", Long.class));
+    }
+
+    @Test
+    void movingAgainAfterAnInterruptedMoveOnlyDeletes() {
+        insertCustomer("primary", 1, "0900000001");
+        // the copy was committed, the delete was not
+        insertCustomer("shard1", 1, "0900000001");
+
+        assertTrue(rebalancer.move("0900000001", "primary", "shard1"));
+        assertFalse(rebalancer.move("0900000001", "primary", "shard1"));
+
+        assertEquals(0, count("primary", "customer"));
+        assertEquals(1, count("shard1", "customer"));
+        assertEquals(1, count("shard1", "accounts"));
+    }
+
+    @Test
+    void rebalancePutsEveryRowWhereTheRingDoes() {
+        for (int i = 0; i < 50; i++) {
+            insertCustomer("primary", i, String.format("09%08d", i));
+        }
+
+        long misplaced = rebalancer.status().get("primary").misplaced();
+        Map<String, Long> moved = rebalancer.rebalance();
+
+        assertTrue(misplaced > 0);
+        assertEquals(misplaced, moved.get("primary"));
+        assertEquals(50, count("primary", "customer") + count("shard1", "customer"));
+        rebalancer.status().values().forEach(status -> assertEquals(0, status.misplaced()));
+    }
+
+    private void insertCustomer(String shard, long customerId, String mobileNumber) {
+        JdbcTemplate jdbcTemplate = shards.get(shard);
+        jdbcTemplate.update("insert into customer values (?, ?)", customerId, mobileNumber);
+        jdbcTemplate.update("insert into accounts values (?, ?)", 1000 + customerId, customerId);
+    }
+
+    private int count(String shard, String table) {
+        return shards.get(shard).queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    private static JdbcTemplate database(String name) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("create table customer (customer_id bigint primary key, "
+                + "mobile_number varchar(15) not null unique)");
+        jdbcTemplate.execute("create table accounts (account_number bigint primary key, customer_id bigint)");
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.cards.sharding;
+
+import com.example.cards.dto.CardsDto;
+import com.example.cards.exception.ResourceNotFoundException;
+import com.example.cards.service.CardsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes to a card that lives on {@code shard1}. Its row can come from the second-level cache
+ * without a statement, so nothing but the binding decides where the update goes at commit.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded-cards-primary",
+        "cards.sharding.enabled=true",
+        "cards.sharding.ring=primary,shard1",
+        "cards.sharding.shards.shard1.url=jdbc:h2:mem:sharded-cards-shard1",
+        "cards.sharding.shards.shard1.username=sa",
+        "cards.sharding.shards.shard1.id-range=1"})
+class ShardedCardsTest {
+
+    @Autowired
+    private CardsService cardsService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource.unwrap(ShardRoutingDataSource.class).shards()
+                .forEach((shard, shardDataSource) -> shards.put(shard, new JdbcTemplate(shardDataSource)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.values().forEach(jdbcTemplate -> jdbcTemplate.update("delete from cards"));
+    }
+
+    @Test
+    void updatesOfACardOnAnotherShardAreWrittenToThatShard() {
+        String mobileNumber = mobileNumberOn("shard1");
+        cardsService.createCard(mobileNumber);
+        CardsDto card = cardsService.fetchCard(mobileNumber);
+        card.setAmountUsed(1000);
+        card.setAvailableAmount(card.getTotalLimit() - 1000);
+        // a rejected update leaves the card's lookup in the query cache, so the retry reads nothing
+        card.setVersion(card.getVersion() + 1);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> cardsService.updateCard(card));
+        card.setVersion(card.getVersion() - 1);
+
+        assertTrue(cardsService.updateCard(card));
+
+        assertEquals(1000, shards.get("shard1").queryForObject(
+                "select amount_used from cards where mobile_number = ?", Integer.class, mobileNumber));
+        assertEquals(0, count("primary"));
+    }
+
+    @Test
+    void deletesOfACardOnAnotherShardRemoveItFromThatShard() {
+        String mobileNumber = mobileNumberOn("shard1");
+        cardsService.createCard(mobileNumber);
+        cardsService.fetchCard(mobileNumber);
+
+        assertTrue(cardsService.deleteCard(mobileNumber));
+
+        assertEquals(0, count("shard1"));
+        assertThrows(ResourceNotFoundException.class, () -> cardsService.fetchCard(mobileNumber));
+    }
+
+    private String mobileNumberOn(String shard) {
+        return IntStream.range(0, 100).mapToObj(i -> String.format("09555555%02d", i))
+                .filter(mobileNumber -> shardRouter.shardOf(mobileNumber).equals(shard))
+                .findFirst().orElseThrow();
+    }
+
+    private int count(String shard) {
+        return shards.get(shard).queryForObject("select count(*) from cards", Integer.class);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.gatewayserver;
 
+import com.example.gatewayserver.loadbalancer.LoadBalancingProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
@@ -9,6 +11,7 @@ import org.springframework.context.annotation.Bean;
 import java.time.LocalDateTime;
 
 @SpringBootApplication
+@EnableConfigurationProperties(LoadBalancingProperties.class)
 public class GatewayserverApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,20 @@
+package com.example.gatewayserver.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Load balancer setup shared by every {@code lb://} route. The strategy is picked per service
+ * through {@code gateway.load-balancing.strategies}.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = RouteLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceLatencyStats instanceLatencyStats(LoadBalancingProperties properties, MeterRegistry meterRegistry) {
+        return new InstanceLatencyStats(properties.getDecay(), properties.getFailurePenalty(), meterRegistry);
+    }
+}
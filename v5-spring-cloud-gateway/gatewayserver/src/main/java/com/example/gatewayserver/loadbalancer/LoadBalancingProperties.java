@@ -0,0 +1,65 @@
+package com.example.gatewayserver.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Choice of load-balancing strategy per routed service, and the tuning of the
+ * latency-aware one.
+ */
+@ConfigurationProperties(prefix = "gateway.load-balancing")
+public class LoadBalancingProperties {
+
+    private Strategy defaultStrategy = Strategy.ROUND_ROBIN;
+
+    private Map<String, Strategy> strategies = new HashMap<>();
+
+    private Duration decay = Duration.ofSeconds(10);
+
+    private Duration failurePenalty = Duration.ofSeconds(1);
+
+    public Strategy strategyFor(String serviceId) {
+        return strategies.getOrDefault(serviceId.toLowerCase(Locale.ROOT), defaultStrategy);
+    }
+
+    public Strategy getDefaultStrategy() {
+        return defaultStrategy;
+    }
+
+    public void setDefaultStrategy(Strategy defaultStrategy) {
+        this.defaultStrategy = defaultStrategy;
+    }
+
+    public Map<String, Strategy> getStrategies() {
+        return strategies;
+    }
+
+    public void setStrategies(Map<String, Strategy> strategies) {
+        this.strategies = strategies;
+    }
+
+    public Duration getDecay() {
+        return decay;
+    }
+
+    public void setDecay(Duration decay) {
+        this.decay = decay;
+    }
+
+    public Duration getFailurePenalty() {
+        return failurePenalty;
+    }
+
+    public void setFailurePenalty(Duration failurePenalty) {
+        this.failurePenalty = failurePenalty;
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LATENCY
+    }
+}
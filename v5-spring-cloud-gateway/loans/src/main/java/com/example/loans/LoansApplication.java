@@ -1,5 +1,9 @@
 package com.example.loans;
 
+import com.example.loans.config.JdbcMonitoringProperties;
+import com.example.loans.config.ReadReplicaProperties;
+import com.example.loans.config.SecondLevelCacheProperties;
+import com.example.loans.config.ShardingProperties;
 import com.example.loans.dto.LoansContactInfoDto;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
@@ -13,7 +17,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {LoansContactInfoDto.class})
+@EnableConfigurationProperties(value = {LoansContactInfoDto.class, JdbcMonitoringProperties.class,
+		ReadReplicaProperties.class, SecondLevelCacheProperties.class, ShardingProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Loans microservice REST API Documentation",
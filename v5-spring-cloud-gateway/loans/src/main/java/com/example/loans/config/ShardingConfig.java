@@ -0,0 +1,180 @@
+package com.example.loans.config;
+
+import com.example.loans.jdbc.JdbcMetricsListener;
+import com.example.loans.sharding.ConsistentHashRing;
+import com.example.loans.sharding.ShardRebalancer;
+import com.example.loans.sharding.ShardRouter;
+import com.example.loans.sharding.ShardRoutingDataSource;
+import com.example.loans.sharding.ShardSchemaInitializer;
+import com.example.loans.sharding.ShardedRows;
+import com.example.loans.sharding.ShardsEndpoint;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loans spread over several databases by consistent hash of the mobile number, active with
+ * {@code loans.sharding.enabled=true}; otherwise there is a single, unsharded {@link ShardRouter}.
+ * <p>
+ * The data source becomes a {@link ShardRoutingDataSource} over the application's pool, the home
+ * shard, and one pool per configured shard, each behind its own monitoring proxy so the
+ * {@code jdbc.*} meters are tagged with the shard. The {@code number_block} table stays on home.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ShardingConfig {
+
+    // what moves with a mobile number when it changes shard
+    static final ShardedRows SHARDED_ROWS = new ShardedRows("loans", "mobile_number", "loan_id", Map.of());
+
+    @Bean
+    @ConditionalOnProperty(prefix = "loans.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    ShardRouter unshardedRouter() {
+        return new ShardRouter(JdbcMonitoringConfig.PRIMARY);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "loans.sharding", name = "enabled", havingValue = "true")
+    static class Sharded {
+
+        @Bean
+        static BeanPostProcessor shardRouting(ObjectProvider<ShardingProperties> properties,
+                                              ObjectProvider<ReadReplicaProperties> replicaProperties,
+                                              ObjectProvider<JdbcMetricsListener> listener,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource home && !(bean instanceof ShardRoutingDataSource)) {
+                        if (replicaProperties.getObject().isEnabled()) {
+                            // a read-only transaction would not know which shard's replica to read
+                            throw new IllegalStateException("Read replicas cannot be used with sharding");
+                        }
+                        ShardingProperties shardingProperties = properties.getObject();
+                        validate(shardingProperties);
+                        Map<String, DataSource> shards = new LinkedHashMap<>();
+                        shards.put(JdbcMonitoringConfig.PRIMARY, home);
+                        shardingProperties.getShards().forEach((name, shard) -> shards.put(name,
+                                JdbcMonitoringConfig.monitored(name, shardPool(name, shard, meterRegistry.getObject()),
+                                        listener.getObject())));
+                        return new ShardRoutingDataSource(JdbcMonitoringConfig.PRIMARY, shards);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        @Bean
+        ShardRebalancer shardRebalancer(ShardingProperties properties, DataSource dataSource) throws SQLException {
+            return new ShardRebalancer(SHARDED_ROWS, dataSource.unwrap(ShardRoutingDataSource.class).shards(),
+                    ring(properties, properties.getRing()), properties.getRebalanceBatchSize());
+        }
+
+        @Bean
+        ShardRouter shardRouter(ShardingProperties properties, ShardRebalancer shardRebalancer) {
+            ConsistentHashRing previousRing = properties.getPreviousRing().isEmpty() ? null
+                    : ring(properties, properties.getPreviousRing());
+            return new ShardRouter(JdbcMonitoringConfig.PRIMARY, ring(properties, properties.getRing()),
+                    previousRing, shardRebalancer, properties.getScatterPoolSize());
+        }
+
+        @Bean
+        ShardsEndpoint shardsEndpoint(ShardRouter shardRouter, ShardRebalancer shardRebalancer) {
+            return new ShardsEndpoint(shardRouter, shardRebalancer);
+        }
+
+        @Bean
+        ShardSchemaInitializer shardSchemaInitializer(ShardingProperties properties, DataSource dataSource,
+                                                      HibernateProperties hibernateProperties,
+                                                      SqlInitializationProperties sqlInitializationProperties)
+                throws SQLException {
+            Map<String, Integer> idRanges = new HashMap<>();
+            properties.getShards().forEach((name, shard) -> idRanges.put(name, shard.getIdRange()));
+            String ddlAuto = hibernateProperties.getDdlAuto();
+            // never anything that drops: the shards hold data of their own
+            String schemaAction = ddlAuto == null || "none".equals(ddlAuto) ? null
+                    : "validate".equals(ddlAuto) ? "validate" : "update";
+            return new ShardSchemaInitializer(dataSource.unwrap(ShardRoutingDataSource.class), idRanges,
+                    new ClassPathResource("schema.sql"), sqlInitializationProperties.getMode(), schemaAction);
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer shardingHibernateProperties(ShardSchemaInitializer shardSchemaInitializer) {
+            return hibernateProperties -> {
+                hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                        (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+                // Hibernate otherwise keeps the connection of the first transaction for the rest of
+                // the request, and a transaction on another shard would run on it
+                hibernateProperties.put(JdbcSettings.CONNECTION_HANDLING,
+                        PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+            };
+        }
+
+        private static ConsistentHashRing ring(ShardingProperties properties, List<String> shards) {
+            if (shards.isEmpty()) {
+                List<String> all = new ArrayList<>();
+                all.add(JdbcMonitoringConfig.PRIMARY);
+                all.addAll(properties.getShards().keySet());
+                shards = all;
+            }
+            return new ConsistentHashRing(shards, properties.getVirtualNodes());
+        }
+
+        private static void validate(ShardingProperties properties) {
+            Map<Integer, String> idRanges = new HashMap<>();
+            properties.getShards().forEach((name, shard) -> {
+                if (shard.getIdRange() < 1) {
+                    throw new IllegalStateException("Shard " + name + " needs an id-range above 0");
+                }
+                String other = idRanges.putIfAbsent(shard.getIdRange(), name);
+                if (other != null) {
+                    throw new IllegalStateException("Shards " + other + " and " + name + " share an id-range");
+                }
+            });
+            for (List<String> ring : List.of(properties.getRing(), properties.getPreviousRing())) {
+                ring.stream()
+                        .filter(shard -> !JdbcMonitoringConfig.PRIMARY.equals(shard))
+                        .filter(shard -> !properties.getShards().containsKey(shard))
+                        .findFirst()
+                        .ifPresent(shard -> {
+                            throw new IllegalStateException("No data source for shard " + shard + " on the ring");
+                        });
+            }
+        }
+
+        private static HikariDataSource shardPool(String name, ShardingProperties.Shard shard,
+                                                  MeterRegistry meterRegistry) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername());
+            pool.setPassword(shard.getPassword());
+            if (StringUtils.hasText(shard.getDriverClassName())) {
+                pool.setDriverClassName(shard.getDriverClassName());
+            }
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            pool.setMetricRegistry(meterRegistry);
+            return pool;
+        }
+    }
+}
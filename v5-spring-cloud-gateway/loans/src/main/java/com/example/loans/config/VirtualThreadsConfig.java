@@ -0,0 +1,60 @@
+package com.example.loans.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Active only with {@code spring.threads.virtual.enabled=true} on Java 21.
+ * <p>
+ * JDBC drivers such as H2 block inside {@code synchronized} code, which pins the virtual thread
+ * to its carrier for the duration of the statement. The connection pool is the gate on how many
+ * threads can be inside the driver at once, so it is kept below the number of carriers; otherwise
+ * a burst of queries could pin every carrier and stall all other requests.
+ * <p>
+ * The pool is never cut below {@value #MIN_POOL_SIZE} connections though: with one or two, every
+ * request, and every number block claimed in a transaction of its own, would queue behind a
+ * single statement. On fewer carriers than that, raise
+ * {@code jdk.virtualThreadScheduler.parallelism} instead.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    static final int MIN_POOL_SIZE = 4;
+
+    @Bean
+    static BeanPostProcessor jdbcPinningGuard() {
+        return new BeanPostProcessor() {
+            // before initialization, while the bean is still the pool and not the proxy around it
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                            Runtime.getRuntime().availableProcessors());
+                    int limit = Math.max(MIN_POOL_SIZE, carriers - 1);
+                    if (dataSource.getMaximumPoolSize() > limit) {
+                        logger.warn("Reducing JDBC pool from {} to {} connections so pinned JDBC calls leave a "
+                                + "virtual thread carrier free; raise jdk.virtualThreadScheduler.parallelism "
+                                + "for a larger pool", dataSource.getMaximumPoolSize(), limit);
+                        dataSource.setMaximumPoolSize(limit);
+                        dataSource.setMinimumIdle(Math.min(dataSource.getMinimumIdle(), limit));
+                    }
+                    if (dataSource.getMaximumPoolSize() >= carriers) {
+                        logger.warn("Only {} virtual thread carriers for a JDBC pool of up to {} connections: pinned "
+                                + "JDBC calls can take every carrier; raise jdk.virtualThreadScheduler.parallelism",
+                                carriers, dataSource.getMaximumPoolSize());
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -8,10 +8,15 @@ public final class LoansConstants {
 
     public static final String  HOME_LOAN = "Home Loan";
     public static final int  NEW_LOAN_LIMIT = 1_00_000;
+    public static final int  MAX_BULK_FETCH_SIZE = 5_000;
+    public static final String  LOANS_CACHE_REGION = "loans";
+    public static final String  APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final int  NUMBER_BLOCK_SIZE = 100;
     public static final String  STATUS_201 = "201";
     public static final String  MESSAGE_201 = "Loan created successfully";
     public static final String  STATUS_200 = "200";
     public static final String  MESSAGE_200 = "Request processed successfully";
+    public static final String  MESSAGE_409 = "Loan was changed by another request. Fetch it again and retry the update";
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
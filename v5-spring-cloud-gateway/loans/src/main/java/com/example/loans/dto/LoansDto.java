@@ -2,6 +2,7 @@ package com.example.loans.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -51,4 +52,10 @@ public class LoansDto {
     )
     private int outstandingAmount;
 
+    @NotNull(message = "Version can not be null, send the version returned by fetch")
+    @Schema(
+            description = "Version of the loan when it was fetched; the update is rejected if it has changed since", example = "0"
+    )
+    private Long version;
+
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.loans.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -37,4 +38,8 @@ public class BaseEntity {
     @Column(insertable = false)
     private String updatedBy;
 
+    // every update is conditional on it: "update ... where id=? and version=?"
+    @Version
+    private Long version;
+
 }
\ No newline at end of file
@@ -1,14 +1,20 @@
 package com.example.loans.entity;
 
+import com.example.loans.constants.LoansConstants;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_loans_mobile_number", columnNames = "mobile_number"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = LoansConstants.LOANS_CACHE_REGION)
 public class Loans extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loans_seq")
+    @SequenceGenerator(name = "loans_seq", sequenceName = "loans_seq", allocationSize = 50)
     private Long loanId;
 
     private String mobileNumber;
@@ -0,0 +1,214 @@
+package com.example.loans.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Records each statement, the rows it returned or changed, and each wait for a pooled connection,
+ * tagged with the repository method from {@link RepositoryMethodInterceptor} and the name of the
+ * pool's proxy.
+ * <p>
+ * The rows of a query are only known once its result set has been read, so they are counted as
+ * the result set is advanced and recorded when it is closed. Meters are looked up once per
+ * pool, repository method and statement type; a statement below the slow query threshold costs a clock
+ * read and a few map lookups.
+ */
+public class JdbcMetricsListener extends JdbcLifecycleEventListenerAdapter {
+
+    private static final String START = JdbcMetricsListener.class.getName() + ".start";
+    private static final QueryType[] TYPES = QueryType.values();
+
+    private final MeterRegistry meterRegistry;
+    private final SlowQueryLog slowQueryLog;
+    // by pool, then by repository method
+    private final Map<String, Map<String, StatementMeters[]>> statementMeters = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Timer>> acquireTimers = new ConcurrentHashMap<>();
+    // result sets still being read on this thread, by the driver's result set
+    private final ThreadLocal<Map<Object, RowCount>> openResultSets = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    public JdbcMetricsListener(MeterRegistry meterRegistry, SlowQueryLog slowQueryLog) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public void beforeGetConnection(MethodExecutionContext executionContext) {
+        executionContext.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterGetConnection(MethodExecutionContext executionContext) {
+        long elapsed = System.nanoTime() - executionContext.getCustomValue(START, Long.class);
+        String dataSource = executionContext.getProxyConfig().getDataSourceName();
+        acquireTimers.computeIfAbsent(dataSource, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(RepositoryMethodInterceptor.current(), method -> Timer.builder("jdbc.connection.acquire")
+                        .description("Time waited for a pooled JDBC connection")
+                        .tag("datasource", dataSource)
+                        .tag("repository.method", method)
+                        .register(meterRegistry))
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = System.nanoTime() - execInfo.getCustomValue(START, Long.class);
+        String method = RepositoryMethodInterceptor.current();
+        QueryType type = queryInfoList.isEmpty() ? QueryType.OTHER : queryType(queryInfoList.get(0).getQuery());
+        String dataSource = execInfo.getDataSourceName();
+        StatementMeters meters = statementMeters.computeIfAbsent(dataSource, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, name -> statementMeters(dataSource, name))[type.ordinal()];
+        meters.latency().record(elapsed, TimeUnit.NANOSECONDS);
+
+        Object result = execInfo.getResult();
+        if (result instanceof ResultSet) {
+            Object resultSet = result instanceof ProxyJdbcObject proxy ? proxy.getTarget() : result;
+            openResultSets.get().put(resultSet, new RowCount(meters.rows()));
+        } else {
+            long rows = updateCount(result);
+            if (rows >= 0) {
+                meters.rows().record(rows);
+            }
+        }
+
+        if (slowQueryLog.isSlow(elapsed)) {
+            slowQueryLog.record(new SlowQueryLog.SlowQuery(Instant.now(), dataSource, method, meters.type(),
+                    elapsed / 1e6, execInfo.isBatch() ? execInfo.getBatchSize() : 0, execInfo.isSuccess(),
+                    queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "))));
+        }
+    }
+
+    @Override
+    public void afterNext(MethodExecutionContext executionContext) {
+        if (Boolean.TRUE.equals(executionContext.getResult())) {
+            RowCount rowCount = openResultSets.get().get(executionContext.getTarget());
+            if (rowCount != null) {
+                rowCount.rows++;
+            }
+        }
+    }
+
+    @Override
+    public void afterClose(MethodExecutionContext executionContext) {
+        Object target = executionContext.getTarget();
+        if (target instanceof ResultSet) {
+            RowCount rowCount = openResultSets.get().remove(target);
+            if (rowCount != null) {
+                rowCount.record();
+            }
+        } else if (target instanceof Connection) {
+            // result sets left open are closed with their statements, without a close of their own
+            Map<Object, RowCount> remaining = openResultSets.get();
+            if (!remaining.isEmpty()) {
+                remaining.values().forEach(RowCount::record);
+                remaining.clear();
+            }
+        }
+    }
+
+    private StatementMeters[] statementMeters(String dataSource, String method) {
+        StatementMeters[] meters = new StatementMeters[TYPES.length];
+        for (QueryType type : TYPES) {
+            String typeTag = type.name().toLowerCase(Locale.ROOT);
+            meters[type.ordinal()] = new StatementMeters(typeTag,
+                    Timer.builder("jdbc.query")
+                            .description("Execution time of JDBC statements")
+                            .tag("datasource", dataSource)
+                            .tag("repository.method", method)
+                            .tag("type", typeTag)
+                            .register(meterRegistry),
+                    DistributionSummary.builder("jdbc.query.rows")
+                            .description("Rows returned by a query or changed by an update")
+                            .baseUnit("rows")
+                            .tag("datasource", dataSource)
+                            .tag("repository.method", method)
+                            .tag("type", typeTag)
+                            .register(meterRegistry));
+        }
+        return meters;
+    }
+
+    /**
+     * Classifies a statement by its first keyword, without the copying and regular expressions
+     * of datasource-proxy's own {@code QueryUtils}.
+     */
+    static QueryType queryType(String sql) {
+        int start = 0;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        if (startsWith(sql, start, "select") || startsWith(sql, start, "with")) {
+            return QueryType.SELECT;
+        } else if (startsWith(sql, start, "insert")) {
+            return QueryType.INSERT;
+        } else if (startsWith(sql, start, "update")) {
+            return QueryType.UPDATE;
+        } else if (startsWith(sql, start, "delete")) {
+            return QueryType.DELETE;
+        }
+        return QueryType.OTHER;
+    }
+
+    private static boolean startsWith(String sql, int start, String keyword) {
+        return sql.regionMatches(true, start, keyword, 0, keyword.length());
+    }
+
+    /**
+     * @return the rows changed by an update or batch, or -1 when the driver did not say
+     */
+    static long updateCount(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long rows = -1;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows = count >= 0 ? Math.max(rows, 0) + count : rows;
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows = count >= 0 ? Math.max(rows, 0) + count : rows;
+            }
+        }
+        return rows;
+    }
+
+    private record StatementMeters(String type, Timer latency, DistributionSummary rows) {
+    }
+
+    private static final class RowCount {
+
+        private final DistributionSummary summary;
+        private long rows;
+
+        private RowCount(DistributionSummary summary) {
+            this.summary = summary;
+        }
+
+        private void record() {
+            summary.record(rows);
+        }
+    }
+}
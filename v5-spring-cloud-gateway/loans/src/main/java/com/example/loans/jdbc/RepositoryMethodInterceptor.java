@@ -0,0 +1,51 @@
+package com.example.loans.jdbc;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binds the repository method being called to the thread, so the JDBC statements it runs can be
+ * tagged with it. When one repository calls another, the outer call keeps the tag.
+ */
+public class RepositoryMethodInterceptor implements MethodInterceptor {
+
+    /**
+     * Tag of statements run outside any repository call, such as the updates Hibernate flushes
+     * when a service transaction commits.
+     */
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final String repositoryName;
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    public RepositoryMethodInterceptor(Class<?> repositoryInterface) {
+        this.repositoryName = repositoryInterface.getSimpleName();
+    }
+
+    /**
+     * @return the repository method running on the current thread, as {@code Repository.method}
+     */
+    public static String current() {
+        String method = CURRENT.get();
+        return method != null ? method : NONE;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (CURRENT.get() != null) {
+            return invocation.proceed();
+        }
+        CURRENT.set(names.computeIfAbsent(invocation.getMethod(), method -> repositoryName + "." + method.getName()));
+        try {
+            return invocation.proceed();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.example.loans.repository;
 
 import com.example.loans.entity.Loans;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LoansRepository extends JpaRepository<Loans, Long> {
 
+    // single-row lookups go through the query cache; the row itself comes from the entity region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Loans> findByMobileNumber(String mobileNumber);
 
+    // may be read from a replica, which can lag: its rows are read from the entity region but never put there
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "GET"))
+    List<Loans> findByMobileNumberIn(Collection<String> mobileNumbers);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Loans> findByLoanNumber(String loanNumber);
 
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.example.loans.service;
 
 import com.example.loans.dto.LoansDto;
 
+import java.util.List;
+
 public interface LoansService {
 
     /**
@@ -17,6 +19,13 @@ public interface LoansService {
      */
     LoansDto fetchLoan(String mobileNumber);
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Loan Details of every given mobileNumber that has one, fetched with a single query
+     */
+    List<LoansDto> fetchLoans(List<String> mobileNumbers);
+
     /**
      *
      * @param loansDto - LoansDto Object
@@ -0,0 +1,42 @@
+package com.example.loans.service.identifier;
+
+import com.example.loans.sharding.ShardRouter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Claims blocks from the {@code number_block} table. The row lock taken by the update
+ * serialises instances claiming the same space, and the claim commits in its own transaction
+ * so it is neither held for the length of the caller's transaction nor undone by its rollback.
+ * With sharding the table lives on the home shard only, whichever shard the caller is on.
+ */
+@Component
+public class JdbcNumberBlockSource implements NumberBlockSource {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public JdbcNumberBlockSource(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long nextHi(String name) {
+        Long hi = shardRouter.onHomeShard(() -> transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update("UPDATE number_block SET next_hi = next_hi + 1 WHERE name = ?", name);
+            if (updated == 0) {
+                throw new IllegalStateException("No number_block row for " + name);
+            }
+            return jdbcTemplate.queryForObject("SELECT next_hi - 1 FROM number_block WHERE name = ?", Long.class, name);
+        }));
+        return hi;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.loans.service.identifier;
+
+import com.example.loans.constants.LoansConstants;
+import org.springframework.stereotype.Component;
+
+/**
+ * Allocates twelve-digit loan numbers.
+ */
+@Component
+public class LoanNumberAllocator extends BlockNumberAllocator {
+
+    public LoanNumberAllocator(NumberBlockSource blockSource) {
+        super(blockSource, "loan_number", LoansConstants.NUMBER_BLOCK_SIZE, 100_000_000_000L, 900_000_000_000L);
+    }
+
+    public String nextLoanNumber() {
+        return Long.toString(next());
+    }
+}
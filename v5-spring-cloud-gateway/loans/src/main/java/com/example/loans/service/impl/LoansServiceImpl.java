@@ -8,28 +8,57 @@ import com.example.loans.exception.ResourceNotFoundException;
 import com.example.loans.mapper.LoansMapper;
 import com.example.loans.repository.LoansRepository;
 import com.example.loans.service.LoansService;
-import lombok.AllArgsConstructor;
+import com.example.loans.service.identifier.LoanNumberAllocator;
+import com.example.loans.sharding.ShardRouter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
-import java.util.Random;
+import java.util.List;
+import java.util.Objects;
 
 @Service
-@AllArgsConstructor
 public class LoansServiceImpl implements LoansService {
 
     private LoansRepository loansRepository;
+    private LoanNumberAllocator loanNumberAllocator;
+    private ShardRouter shardRouter;
+    private TransactionTemplate transaction;
+
+    public LoansServiceImpl(LoansRepository loansRepository, LoanNumberAllocator loanNumberAllocator,
+                            ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.loansRepository = loansRepository;
+        this.loanNumberAllocator = loanNumberAllocator;
+        this.shardRouter = shardRouter;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * @param mobileNumber - Mobile Number of the Customer
      */
     @Override
     public void createLoan(String mobileNumber) {
-        Optional<Loans> optionalLoans= loansRepository.findByMobileNumber(mobileNumber);
-        if(optionalLoans.isPresent()){
+        // built outside any transaction: a new block of numbers takes a connection of its own, and
+        // parallel creates each holding one while they wait for it could exhaust the pool
+        Loans newLoan = createNewLoan(mobileNumber);
+        try {
+            // the unique constraint on mobile_number is the duplicate check
+            shardRouter.onShardOf(mobileNumber, () -> loansRepository.saveAndFlush(newLoan));
+        } catch (DataIntegrityViolationException ex) {
+            if (!isUniqueViolation(ex)) {
+                throw ex;
+            }
             throw new LoanAlreadyExistsException("Loan already registered with given mobileNumber "+mobileNumber);
         }
-        loansRepository.save(createNewLoan(mobileNumber));
+    }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException ex) {
+        return ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
     }
 
     /**
@@ -38,8 +67,7 @@ public class LoansServiceImpl implements LoansService {
      */
     private Loans createNewLoan(String mobileNumber) {
         Loans newLoan = new Loans();
-        long randomLoanNumber = 100000000000L + new Random().nextInt(900000000);
-        newLoan.setLoanNumber(Long.toString(randomLoanNumber));
+        newLoan.setLoanNumber(loanNumberAllocator.nextLoanNumber());
         newLoan.setMobileNumber(mobileNumber);
         newLoan.setLoanType(LoansConstants.HOME_LOAN);
         newLoan.setTotalLoan(LoansConstants.NEW_LOAN_LIMIT);
@@ -54,13 +82,27 @@ public class LoansServiceImpl implements LoansService {
      * @return Loan Details based on a given mobileNumber
      */
     @Override
+    // not read-only: what this reads fills the query cache, so it must not come from a lagging replica
+    @Transactional
     public LoansDto fetchLoan(String mobileNumber) {
-        Loans loans = loansRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
-        );
+        Loans loans = shardRouter.onShardOf(mobileNumber, () -> loansRepository.findByMobileNumber(mobileNumber))
+                .orElseThrow(() -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber));
         return LoansMapper.mapToLoansDto(loans, new LoansDto());
     }
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Loan Details of every given mobileNumber that has one, fetched with a single query per shard
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<LoansDto> fetchLoans(List<String> mobileNumbers) {
+        return shardRouter.onShardsOf(mobileNumbers, loansRepository::findByMobileNumberIn).stream()
+                .map(loans -> LoansMapper.mapToLoansDto(loans, new LoansDto()))
+                .toList();
+    }
+
     /**
      *
      * @param loansDto - LoansDto Object
@@ -68,11 +110,21 @@ public class LoansServiceImpl implements LoansService {
      */
     @Override
     public boolean updateLoan(LoansDto loansDto) {
-        Loans loans = loansRepository.findByLoanNumber(loansDto.getLoanNumber()).orElseThrow(
-                () -> new ResourceNotFoundException("Loan", "LoanNumber", loansDto.getLoanNumber()));
-        LoansMapper.mapToLoans(loansDto, loans);
-        loansRepository.save(loans);
-        return  true;
+        // the loan is looked for on the shard of the mobile number given: as the shard key, a loan
+        // cannot be moved to a number that lives on another shard. The shard is bound before the
+        // transaction starts, so the update flushed at commit goes to it too
+        return shardRouter.onShardOf(loansDto.getMobileNumber(), () -> transaction.execute(status -> {
+            // the row normally comes from the second-level cache, so the versioned update at commit
+            // is the only statement sent
+            Loans loans = loansRepository.findByLoanNumber(loansDto.getLoanNumber()).orElseThrow(
+                    () -> new ResourceNotFoundException("Loan", "LoanNumber", loansDto.getLoanNumber()));
+            if (!Objects.equals(loans.getVersion(), loansDto.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Loans.class, loans.getLoanId());
+            }
+            LoansMapper.mapToLoans(loansDto, loans);
+            loansRepository.save(loans);
+            return  true;
+        }));
     }
 
     /**
@@ -81,11 +133,13 @@ public class LoansServiceImpl implements LoansService {
      */
     @Override
     public boolean deleteLoan(String mobileNumber) {
-        Loans loans = loansRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
-        );
-        loansRepository.deleteById(loans.getLoanId());
-        return true;
+        return shardRouter.onShardOf(mobileNumber, () -> transaction.execute(status -> {
+            Loans loans = loansRepository.findByMobileNumber(mobileNumber).orElseThrow(
+                    () -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
+            );
+            loansRepository.deleteById(loans.getLoanId());
+            return true;
+        }));
     }
 
 
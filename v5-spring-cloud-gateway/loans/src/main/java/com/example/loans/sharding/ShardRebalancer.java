@@ -0,0 +1,233 @@
+package com.example.loans.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Moves rows to the shard the ring puts them on.
+ * <p>
+ * A move locks the rows on the source shard, copies them with their ids to the target shard and
+ * commits there, then deletes them from the source. A failure between the two commits leaves the
+ * rows on both shards; moving again finds the copy, skips it and only deletes. Ids are unique
+ * across shards, so the copy keeps them and nothing that refers to a row changes.
+ * <p>
+ * Moves go straight to the shards' pools with plain JDBC, outside any Spring transaction, so
+ * they can run in the middle of a request that is about to use the rows.
+ */
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private final ShardedRows rows;
+    private final Map<String, DataSource> shards;
+    private final ConsistentHashRing ring;
+    private final int batchSize;
+
+    public ShardRebalancer(ShardedRows rows, Map<String, DataSource> shards, ConsistentHashRing ring, int batchSize) {
+        this.rows = rows;
+        this.shards = shards;
+        this.ring = ring;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Moves the rows of a key between shards. Safe to repeat, and to race with another move of
+     * the same key: the second waits for the first's lock and then finds nothing to move.
+     *
+     * @return whether the source shard had rows for the key
+     */
+    public boolean move(String key, String from, String to) {
+        try (Connection source = shards.get(from).getConnection();
+             Connection target = shards.get(to).getConnection()) {
+            source.setAutoCommit(false);
+            target.setAutoCommit(false);
+            try {
+                List<Map<String, Object>> roots = select(source, rows.table(), rows.keyColumn(), key);
+                for (Map<String, Object> root : roots) {
+                    Object id = root.get(rows.idColumn());
+                    Map<String, List<Map<String, Object>>> children = new LinkedHashMap<>();
+                    rows.children().forEach((child, column) -> children.put(child, select(source, child, column, id)));
+                    if (!exists(target, rows.table(), rows.idColumn(), id)) {
+                        insert(target, rows.table(), root);
+                        children.forEach((child, childRows) -> childRows.forEach(row -> insert(target, child, row)));
+                    }
+                }
+                target.commit();
+                for (Map<String, Object> root : roots) {
+                    Object id = root.get(rows.idColumn());
+                    rows.children().forEach((child, column) -> delete(source, child, column, id));
+                    delete(source, rows.table(), rows.idColumn(), id);
+                }
+                source.commit();
+                if (!roots.isEmpty()) {
+                    logger.debug("Moved {} {} from shard {} to {}", rows.table(), key, from, to);
+                }
+                return !roots.isEmpty();
+            } catch (SQLException | RuntimeException ex) {
+                rollbackQuietly(target);
+                rollbackQuietly(source);
+                throw ex;
+            }
+        } catch (SQLException | UncheckedSqlException ex) {
+            throw new IllegalStateException(
+                    String.format("Moving %s %s from shard %s to %s failed", rows.table(), key, from, to),
+                    ex instanceof UncheckedSqlException ? ex.getCause() : ex);
+        }
+    }
+
+    /**
+     * Moves every row that is not on the shard the ring puts it on, a batch of keys at a time.
+     *
+     * @return the number of keys moved off each shard
+     */
+    public Map<String, Long> rebalance() {
+        Map<String, Long> moved = new LinkedHashMap<>();
+        shards.keySet().forEach(shard -> {
+            long count = 0;
+            for (List<String> keys = keysAfter(shard, ""); !keys.isEmpty();
+                 keys = keysAfter(shard, keys.get(keys.size() - 1))) {
+                for (String key : keys) {
+                    String owner = ring.shardOf(key);
+                    if (!owner.equals(shard) && move(key, shard, owner)) {
+                        count++;
+                    }
+                }
+            }
+            if (count > 0) {
+                logger.info("Moved {} {} rows off shard {}", count, rows.table(), shard);
+            }
+            moved.put(shard, count);
+        });
+        return moved;
+    }
+
+    /**
+     * Reads every key, so it costs a scan of each shard.
+     *
+     * @return how many keys each shard holds, and how many of them belong elsewhere
+     */
+    public Map<String, ShardStatus> status() {
+        Map<String, ShardStatus> status = new LinkedHashMap<>();
+        shards.keySet().forEach(shard -> {
+            long keyCount = 0;
+            long misplaced = 0;
+            for (List<String> keys = keysAfter(shard, ""); !keys.isEmpty();
+                 keys = keysAfter(shard, keys.get(keys.size() - 1))) {
+                keyCount += keys.size();
+                misplaced += keys.stream().filter(key -> !ring.shardOf(key).equals(shard)).count();
+            }
+            status.put(shard, new ShardStatus(keyCount, misplaced));
+        });
+        return status;
+    }
+
+    private List<String> keysAfter(String shard, String after) {
+        String sql = String.format("select %1$s from %2$s where %1$s > ? order by %1$s", rows.keyColumn(), rows.table());
+        try (Connection connection = shards.get(shard).getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setMaxRows(batchSize);
+            statement.setString(1, after);
+            List<String> keys = new ArrayList<>(batchSize);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    keys.add(resultSet.getString(1));
+                }
+            }
+            return keys;
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Reading the keys of shard " + shard + " failed", ex);
+        }
+    }
+
+    private static List<Map<String, Object>> select(Connection connection, String table, String column, Object value) {
+        String sql = String.format("select * from %s where %s = ? for update", table, column);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, value);
+            List<Map<String, Object>> found = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    // drivers disagree on the case of column labels
+                    Map<String, Object> row = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        row.put(metaData.getColumnLabel(i), resultSet.getObject(i));
+                    }
+                    found.add(row);
+                }
+            }
+            return found;
+        } catch (SQLException ex) {
+            throw new UncheckedSqlException(ex);
+        }
+    }
+
+    private static boolean exists(Connection connection, String table, String column, Object value) {
+        String sql = String.format("select 1 from %s where %s = ?", table, column);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, value);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException ex) {
+            throw new UncheckedSqlException(ex);
+        }
+    }
+
+    private static void insert(Connection connection, String table, Map<String, Object> row) {
+        String sql = String.format("insert into %s (%s) values (%s)", table, String.join(", ", row.keySet()),
+                String.join(", ", row.keySet().stream().map(column -> "?").toList()));
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int i = 1;
+            for (Object value : row.values()) {
+                statement.setObject(i++, value);
+            }
+            statement.executeUpdate();
+        } catch (SQLException ex) {
+            throw new UncheckedSqlException(ex);
+        }
+    }
+
+    private static void delete(Connection connection, String table, String column, Object value) {
+        try (PreparedStatement statement = connection.prepareStatement(
+                String.format("delete from %s where %s = ?", table, column))) {
+            statement.setObject(1, value);
+            statement.executeUpdate();
+        } catch (SQLException ex) {
+            throw new UncheckedSqlException(ex);
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException ex) {
+            logger.debug("Rollback failed", ex);
+        }
+    }
+
+    /**
+     * @param keys      keys on the shard
+     * @param misplaced keys on the shard that the ring puts on another
+     */
+    public record ShardStatus(long keys, long misplaced) {
+    }
+
+    private static final class UncheckedSqlException extends RuntimeException {
+
+        private UncheckedSqlException(SQLException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.loans.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends each connection to the shard bound to the thread by {@link ShardRouter}, or to the home
+ * shard when none is.
+ * <p>
+ * A connection is only taken from a pool when its first statement runs, so a transaction begun
+ * before the shard is bound still runs on that shard. The home shard is the application's own
+ * data source: Hibernate starts up against it and it keeps the tables that are not sharded.
+ */
+public class ShardRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final Router router;
+
+    /**
+     * @param home   name of the home shard, which must be one of the shards
+     * @param shards every shard's data source, keyed by shard name
+     */
+    public ShardRoutingDataSource(String home, Map<String, DataSource> shards) {
+        super(new Router(home, shards));
+        this.router = (Router) obtainTargetDataSource();
+    }
+
+    /**
+     * @return the name of the shard used when none is bound
+     */
+    public String home() {
+        return router.home;
+    }
+
+    /**
+     * @return every shard's own data source, keyed by shard name, home first
+     */
+    public Map<String, DataSource> shards() {
+        return router.shards;
+    }
+
+    /**
+     * Closes the pools of every shard.
+     */
+    @Override
+    public void close() {
+        router.close();
+    }
+
+    private static final class Router extends AbstractDataSource {
+
+        private static final Logger logger = LoggerFactory.getLogger(ShardRoutingDataSource.class);
+
+        private final String home;
+        private final Map<String, DataSource> shards;
+
+        private Router(String home, Map<String, DataSource> shards) {
+            if (!shards.containsKey(home)) {
+                throw new IllegalArgumentException("No data source for home shard " + home);
+            }
+            Map<String, DataSource> ordered = new LinkedHashMap<>();
+            ordered.put(home, shards.get(home));
+            ordered.putAll(shards);
+            this.home = home;
+            this.shards = Collections.unmodifiableMap(ordered);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return target().getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return target().getConnection(username, password);
+        }
+
+        private DataSource target() throws SQLException {
+            String shard = ShardRouter.currentShard();
+            if (shard == null) {
+                return shards.get(home);
+            }
+            DataSource dataSource = shards.get(shard);
+            if (dataSource == null) {
+                throw new SQLException("No data source for shard " + shard);
+            }
+            return dataSource;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : shards.get(home).unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || shards.get(home).isWrapperFor(iface);
+        }
+
+        private void close() {
+            shards.values().forEach(Router::closeQuietly);
+        }
+
+        private static void closeQuietly(DataSource dataSource) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    logger.debug("Closing data source failed", ex);
+                }
+            }
+        }
+    }
+}
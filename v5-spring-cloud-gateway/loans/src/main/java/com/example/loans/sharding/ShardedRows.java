@@ -0,0 +1,15 @@
+package com.example.loans.sharding;
+
+import java.util.Map;
+
+/**
+ * The rows that live together on one shard: a row of {@code table} found by its shard key, and
+ * the rows of each child table that reference its id.
+ *
+ * @param table     the table holding the shard key
+ * @param keyColumn the shard key column, unique within the table
+ * @param idColumn  the table's primary key
+ * @param children  child tables, each with the column that references {@code idColumn}
+ */
+public record ShardedRows(String table, String keyColumn, String idColumn, Map<String, String> children) {
+}
@@ -0,0 +1,41 @@
+package com.example.loans.sharding;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/shards}: the ring, and how many keys each shard holds and how many of them
+ * belong on another shard. A POST moves those to where the ring puts them, while requests keep
+ * being served; run it after every instance has been given a new ring.
+ */
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+    private final ShardRouter shardRouter;
+    private final ShardRebalancer rebalancer;
+
+    public ShardsEndpoint(ShardRouter shardRouter, ShardRebalancer rebalancer) {
+        this.shardRouter = shardRouter;
+        this.rebalancer = rebalancer;
+    }
+
+    @ReadOperation
+    public ShardsDescriptor shards() {
+        ConsistentHashRing previousRing = shardRouter.previousRing();
+        return new ShardsDescriptor(shardRouter.ring().shards(),
+                previousRing == null ? List.of() : previousRing.shards(), rebalancer.status());
+    }
+
+    @WriteOperation
+    public Map<String, Long> rebalance() {
+        return rebalancer.rebalance();
+    }
+
+    public record ShardsDescriptor(List<String> ring, List<String> previousRing,
+                                   Map<String, ShardRebalancer.ShardStatus> shards) {
+    }
+}
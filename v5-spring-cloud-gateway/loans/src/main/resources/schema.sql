@@ -1,5 +1,7 @@
+CREATE SEQUENCE IF NOT EXISTS loans_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS loans (
-     loan_id int NOT NULL AUTO_INCREMENT,
+     loan_id bigint NOT NULL,
      mobile_number varchar(15) NOT NULL,
     loan_number varchar(100) NOT NULL,
     loan_type varchar(100) NOT NULL,
@@ -10,5 +12,21 @@ CREATE TABLE IF NOT EXISTS loans (
     created_by varchar(20) NOT NULL,
     updated_at date DEFAULT NULL,
     updated_by varchar(20) DEFAULT NULL,
-    PRIMARY KEY (loan_id)
-    );
\ No newline at end of file
+    version bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (loan_id),
+    CONSTRAINT uk_loans_mobile_number UNIQUE (mobile_number)
+    );
+
+CREATE TABLE IF NOT EXISTS number_block (
+    name varchar(50) PRIMARY KEY,
+    next_hi bigint NOT NULL
+    );
+
+INSERT INTO number_block (name, next_hi)
+SELECT 'loan_number', 0 WHERE NOT EXISTS (SELECT 1 FROM number_block WHERE name = 'loan_number');
+
+-- tables created before rows were versioned, where ddl-auto may have added a nullable version
+ALTER TABLE loans ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+UPDATE loans SET version = 0 WHERE version IS NULL;
+ALTER TABLE loans ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE loans ALTER COLUMN version SET NOT NULL;
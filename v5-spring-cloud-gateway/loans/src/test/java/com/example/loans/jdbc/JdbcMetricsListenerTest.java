@@ -0,0 +1,106 @@
+package com.example.loans.jdbc;
+
+import com.example.loans.config.JdbcMonitoringConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JdbcMetricsListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ZERO, 10);
+    private JdbcTemplate plain;
+    private JdbcTemplate monitored;
+
+    @BeforeEach
+    void setUp() {
+        plain = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        plain.execute("create table item (id int primary key, name varchar(20))");
+        monitored = new JdbcTemplate(JdbcMonitoringConfig.monitored("test", plain.getDataSource(),
+                new JdbcMetricsListener(meterRegistry, slowQueryLog)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        plain.execute("shutdown");
+    }
+
+    @Test
+    void statementsAreTypedByTheirFirstKeyword() {
+        assertEquals(QueryType.SELECT, JdbcMetricsListener.queryType("select 1"));
+        assertEquals(QueryType.SELECT, JdbcMetricsListener.queryType("  (SELECT 1) union (select 2)"));
+        assertEquals(QueryType.SELECT, JdbcMetricsListener.queryType("with t as (select 1) select * from t"));
+        assertEquals(QueryType.INSERT, JdbcMetricsListener.queryType("\n\tInsert into item values (1, 'a')"));
+        assertEquals(QueryType.UPDATE, JdbcMetricsListener.queryType("update item set name = 'b'"));
+        assertEquals(QueryType.DELETE, JdbcMetricsListener.queryType("DELETE from item"));
+        assertEquals(QueryType.OTHER, JdbcMetricsListener.queryType("merge into item key (id) values (1, 'a')"));
+        assertEquals(QueryType.OTHER, JdbcMetricsListener.queryType("sel"));
+        assertEquals(QueryType.OTHER, JdbcMetricsListener.queryType(""));
+    }
+
+    @Test
+    void updateCountsAddUpTheRowsTheDriverReported() {
+        assertEquals(3, JdbcMetricsListener.updateCount(3));
+        assertEquals(3, JdbcMetricsListener.updateCount(new int[] {1, 2, 0}));
+        assertEquals(2, JdbcMetricsListener.updateCount(new long[] {1, Statement.SUCCESS_NO_INFO, 1}));
+        assertEquals(-1, JdbcMetricsListener.updateCount(new int[] {Statement.SUCCESS_NO_INFO}));
+        assertEquals(-1, JdbcMetricsListener.updateCount(new int[0]));
+        assertEquals(-1, JdbcMetricsListener.updateCount(true));
+    }
+
+    @Test
+    void rowsChangedByUpdatesAndBatchesAreRecorded() {
+        monitored.batchUpdate("insert into item values (?, ?)",
+                List.of(new Object[] {1, "a"}, new Object[] {2, "b"}, new Object[] {3, "c"}));
+        monitored.update("update item set name = 'x' where id < 3");
+
+        assertEquals(3, rows("insert").totalAmount());
+        assertEquals(1, rows("insert").count());
+        assertEquals(2, rows("update").totalAmount());
+    }
+
+    @Test
+    void rowsAreCountedAsTheResultSetIsRead() {
+        plain.update("insert into item values (1, 'a'), (2, 'b'), (3, 'c')");
+
+        assertEquals(3, monitored.queryForList("select name from item", String.class).size());
+        assertEquals(List.of(), monitored.queryForList("select name from item where id > 3", String.class));
+
+        assertEquals(2, rows("select").count());
+        assertEquals(3, rows("select").totalAmount());
+        assertEquals(3, rows("select").max());
+    }
+
+    @Test
+    void slowStatementsAreLoggedWithTheirType() {
+        monitored.batchUpdate("insert into item values (?, ?)",
+                List.of(new Object[] {1, "a"}, new Object[] {2, "b"}));
+        monitored.queryForList("select name from item", String.class);
+
+        List<SlowQueryLog.SlowQuery> slowest = slowQueryLog.slowest();
+        assertEquals(2, slowest.size());
+        SlowQueryLog.SlowQuery insert = slowest.stream().filter(query -> query.type().equals("insert"))
+                .findFirst().orElseThrow();
+        assertEquals(2, insert.batchSize());
+        assertEquals("test", insert.dataSource());
+        assertEquals(RepositoryMethodInterceptor.NONE, insert.repositoryMethod());
+        assertEquals("insert into item values (?, ?)", insert.sql());
+    }
+
+    private DistributionSummary rows(String type) {
+        return meterRegistry.get("jdbc.query.rows").tags("datasource", "test", "type", type).summary();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.loans.service.impl;
+
+import com.example.loans.dto.LoansDto;
+import com.example.loans.exception.LoanAlreadyExistsException;
+import com.example.loans.service.LoansService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LoansServiceImplTest {
+
+    private static final int CREATES = 16;
+
+    @Autowired
+    private LoansService loansService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelCreatesOfOneMobileNumberLeaveOneLoan() throws Exception {
+        String mobileNumber = "0933333333";
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(CREATES);
+        List<Future<?>> creates = new ArrayList<>();
+        try {
+            for (int i = 0; i < CREATES; i++) {
+                creates.add(pool.submit(() -> {
+                    start.await();
+                    loansService.createLoan(mobileNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<?> create : creates) {
+                try {
+                    create.get();
+                    created++;
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(LoanAlreadyExistsException.class, ex.getCause());
+                }
+            }
+            assertEquals(1, created);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from loans where mobile_number = ?", Integer.class, mobileNumber));
+    }
+
+    @Test
+    void aLoanInsertedWithoutAVersionCanBeUpdated() {
+        String mobileNumber = "0944444444";
+        // as rows written before versioning, or by anything but this service, are
+        jdbcTemplate.update("insert into loans (loan_id, mobile_number, loan_number, loan_type, total_loan, amount_paid, outstanding_amount, created_at, created_by) values (1000000, ?, '100000000001', 'Home Loan', 100000, 0, 100000, current_date, 'migration')", mobileNumber);
+        LoansDto loansDto = loansService.fetchLoan(mobileNumber);
+        assertEquals(0L, loansDto.getVersion());
+        loansDto.setAmountPaid(1000);
+        loansDto.setOutstandingAmount(99000);
+
+        assertTrue(loansService.updateLoan(loansDto));
+
+        assertEquals(1000, jdbcTemplate.queryForObject(
+                "select amount_paid from loans where mobile_number = ?", Integer.class, mobileNumber));
+        assertEquals(1L, loansService.fetchLoan(mobileNumber).getVersion());
+        loansService.deleteLoan(mobileNumber);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.loans.sharding;
+
+import com.example.loans.dto.LoansDto;
+import com.example.loans.exception.ResourceNotFoundException;
+import com.example.loans.service.LoansService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes to a loan that lives on {@code shard1}. Its row can come from the second-level cache
+ * without a statement, so nothing but the binding decides where the update goes at commit.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded-loans-primary",
+        "loans.sharding.enabled=true",
+        "loans.sharding.ring=primary,shard1",
+        "loans.sharding.shards.shard1.url=jdbc:h2:mem:sharded-loans-shard1",
+        "loans.sharding.shards.shard1.username=sa",
+        "loans.sharding.shards.shard1.id-range=1"})
+class ShardedLoansTest {
+
+    @Autowired
+    private LoansService loansService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource.unwrap(ShardRoutingDataSource.class).shards()
+                .forEach((shard, shardDataSource) -> shards.put(shard, new JdbcTemplate(shardDataSource)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.values().forEach(jdbcTemplate -> jdbcTemplate.update("delete from loans"));
+    }
+
+    @Test
+    void updatesOfALoanOnAnotherShardAreWrittenToThatShard() {
+        String mobileNumber = mobileNumberOn("shard1");
+        loansService.createLoan(mobileNumber);
+        LoansDto loan = loansService.fetchLoan(mobileNumber);
+        loan.setAmountPaid(1000);
+        loan.setOutstandingAmount(loan.getTotalLoan() - 1000);
+        // a rejected update leaves the loan's lookup in the query cache, so the retry reads nothing
+        loan.setVersion(loan.getVersion() + 1);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> loansService.updateLoan(loan));
+        loan.setVersion(loan.getVersion() - 1);
+
+        assertTrue(loansService.updateLoan(loan));
+
+        assertEquals(1000, shards.get("shard1").queryForObject(
+                "select amount_paid from loans where mobile_number = ?", Integer.class, mobileNumber));
+        assertEquals(0, count("primary"));
+    }
+
+    @Test
+    void deletesOfALoanOnAnotherShardRemoveItFromThatShard() {
+        String mobileNumber = mobileNumberOn("shard1");
+        loansService.createLoan(mobileNumber);
+        loansService.fetchLoan(mobileNumber);
+
+        assertTrue(loansService.deleteLoan(mobileNumber));
+
+        assertEquals(0, count("shard1"));
+        assertThrows(ResourceNotFoundException.class, () -> loansService.fetchLoan(mobileNumber));
+    }
+
+    private String mobileNumberOn(String shard) {
+        return IntStream.range(0, 100).mapToObj(i -> String.format("09666666%02d", i))
+                .filter(mobileNumber -> shardRouter.shardOf(mobileNumber).equals(shard))
+                .findFirst().orElseThrow();
+    }
+
+    private int count(String shard) {
+        return shards.get(shard).queryForObject("select count(*) from loans", Integer.class);
+    }
+}